@@ -0,0 +1,85 @@
+package com.example.ecom.benchmark;
+
+import com.example.ecom.dto.LoginResponse;
+import com.example.ecom.dto.UserCredentials;
+import com.example.ecom.model.User;
+import com.example.ecom.repository.UserRepository;
+import com.example.ecom.security.JwtService;
+import com.example.ecom.security.PasswordConfig;
+import com.example.ecom.security.PasswordHasher;
+import com.example.ecom.service.UserService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login cost: the raw BCrypt match and the whole UserService.authenticateUser
+ * path, with the repository stubbed so only CPU work is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthenticationBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+    private PasswordHasher passwordHasher;
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder();
+        hash = encoder.encode(PASSWORD);
+
+        // Same cost as the raw encoder, stored {bcrypt}-prefixed so logins do not trigger a rehash
+        PasswordEncoder passwords = new PasswordConfig().passwordEncoder(PasswordConfig.BCRYPT, 10, 0, 19456, 2, 1);
+        passwordHasher = new PasswordHasher(passwords, 1, 200);
+
+        User user = BenchmarkData.user(passwords.encode(PASSWORD));
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findCredentials(user.getUsername())).thenReturn(Optional.of(
+                new UserCredentials(user.getId(), user.getUsername(), user.getEmail(), user.getPhoneNumber(),
+                        user.getPassword(), user.getRole())));
+
+        userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userService, "jwtService",
+                new JwtService("ecom_secret_key_ecom_secret_key_ecom_secret_key", 3600000));
+        ReflectionTestUtils.setField(userService, "passwordHasher", passwordHasher);
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Benchmark
+    public boolean bcryptMatches() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public LoginResponse authenticateUser() {
+        return userService.authenticateUser("benchmark-user", PASSWORD);
+    }
+}
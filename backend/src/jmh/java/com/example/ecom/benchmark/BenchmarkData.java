@@ -0,0 +1,111 @@
+package com.example.ecom.benchmark;
+
+import com.example.ecom.model.Address;
+import com.example.ecom.model.Order;
+import com.example.ecom.model.OrderItem;
+import com.example.ecom.model.PaymentMethod;
+import com.example.ecom.model.Product;
+import com.example.ecom.model.User;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic entities shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    private static final String[] BRANDS = {"Apple", "Samsung", "Sony", "Dell", "Lenovo", "Bose", "Canon", "Asus"};
+    private static final String[] CATEGORIES = {"Mobile", "Laptop", "Audio", "Camera", "Accessories", "Tablet"};
+    private static final String[] WORDS = {"pro", "max", "ultra", "mini", "air", "plus", "lite", "wireless",
+            "gaming", "smart", "classic", "edge", "neo", "studio", "sport", "vision"};
+
+    private BenchmarkData() {
+    }
+
+    static List<Product> products(int count) {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String brand = BRANDS[random.nextInt(BRANDS.length)];
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            Product product = new Product();
+            product.setId(i);
+            product.setName(brand + " " + WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " " + (100 + random.nextInt(900)));
+            product.setBrand(brand);
+            product.setCategory(category);
+            product.setDescription("A " + WORDS[random.nextInt(WORDS.length)] + " " + category.toLowerCase()
+                    + " from " + brand + " with " + WORDS[random.nextInt(WORDS.length)] + " features");
+            product.setPrice(BigDecimal.valueOf(10 + random.nextInt(200000), 2));
+            product.setReleaseDate(new Date(1700000000000L));
+            product.setProductAvailable(random.nextBoolean());
+            product.setStockQuantity(random.nextInt(500));
+            product.setImageName("image-" + i + ".png");
+            product.setImageType("image/png");
+            products.add(product);
+        }
+        return products;
+    }
+
+    static Order order(int itemCount) {
+        Order order = new Order();
+        order.setId(1L);
+        order.setOrderNumber("ORD-3f2a8c1e-6b7d-4e5f-9a0b-1c2d3e4f5a6b");
+        order.setUserId(7L);
+        order.setStatus("Placed");
+        order.setPaymentMethod("Visa ending 4242");
+        order.setAddressJson("{\"street\":\"1 Main St\",\"city\":\"Springfield\",\"zipCode\":\"12345\"}");
+        order.setCreatedAt(new Date(1700000000000L));
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < itemCount; i++) {
+            OrderItem item = new OrderItem();
+            item.setId((long) i + 1);
+            item.setProductId((long) i + 100);
+            item.setName("Product " + i);
+            item.setPrice(BigDecimal.valueOf(1999 + i, 2));
+            item.setQuantity(1 + i % 3);
+            order.addItem(item);
+            total = total.add(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        order.setTotalPrice(total);
+        return order;
+    }
+
+    static User user(String encodedPassword) {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("benchmark-user");
+        user.setEmail("benchmark@example.com");
+        user.setPhoneNumber("5550100");
+        user.setPassword(encodedPassword);
+        user.setRole("ROLE_USER");
+        return user;
+    }
+
+    static List<Address> addresses(User user, int count) {
+        List<Address> addresses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Address address = new Address(user, "Label " + i, "Full Name", "5550100", i + " Main St",
+                    "Springfield", "IL", "62701", "USA");
+            address.setId((long) i + 1);
+            address.setDefault(i == 0);
+            addresses.add(address);
+        }
+        return addresses;
+    }
+
+    static List<PaymentMethod> paymentMethods(User user, int count) {
+        List<PaymentMethod> methods = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PaymentMethod method = new PaymentMethod(user, "Full Name", String.valueOf(4000 + i), "Visa", "12", "2030");
+            method.setId((long) i + 1);
+            method.setDefault(i == 0);
+            methods.add(method);
+        }
+        return methods;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.ecom.benchmark;
+
+import com.example.ecom.dto.AddressResponse;
+import com.example.ecom.dto.PaymentMethodResponse;
+import com.example.ecom.model.User;
+import com.example.ecom.repository.AddressRepository;
+import com.example.ecom.repository.PaymentMethodRepository;
+import com.example.ecom.service.UserService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping in UserService, with repositories stubbed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoMappingBenchmark {
+
+    private static final long USER_ID = 7L;
+
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        User user = BenchmarkData.user("hash");
+
+        AddressRepository addressRepository = Mockito.mock(AddressRepository.class);
+        Mockito.when(addressRepository.findByUserId(USER_ID)).thenReturn(BenchmarkData.addresses(user, 5));
+
+        PaymentMethodRepository paymentMethodRepository = Mockito.mock(PaymentMethodRepository.class);
+        Mockito.when(paymentMethodRepository.findByUserId(USER_ID)).thenReturn(BenchmarkData.paymentMethods(user, 5));
+
+        userService = new UserService();
+        ReflectionTestUtils.setField(userService, "addressRepository", addressRepository);
+        ReflectionTestUtils.setField(userService, "paymentMethodRepository", paymentMethodRepository);
+    }
+
+    @Benchmark
+    public List<AddressResponse> getAddresses() {
+        return userService.getAddresses(USER_ID);
+    }
+
+    @Benchmark
+    public List<PaymentMethodResponse> getPaymentMethods() {
+        return userService.getPaymentMethods(USER_ID);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.ecom.benchmark;
+
+import com.example.ecom.security.JwtService;
+import com.example.ecom.security.TokenClaims;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.security.Key;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuance and verification through {@link JwtService}, against the
+ * previous per-call parser/key construction that parsed each token three times.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final String SECRET = "ecom_secret_key_ecom_secret_key_ecom_secret_key";
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, 3600000);
+        token = jwtService.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public String issue() {
+        return jwtService.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public TokenClaims verify() {
+        return jwtService.verify(token);
+    }
+
+    /**
+     * What the request filter used to do: extractUsername, then isTokenValid
+     * (username + expiry), each rebuilding the key and parser
+     */
+    @Benchmark
+    public void verifyLegacy(Blackhole bh) {
+        bh.consume(legacyParse(token).getSubject());
+        bh.consume(legacyParse(token).getSubject());
+        bh.consume(legacyParse(token).getExpiration());
+    }
+
+    private static Claims legacyParse(String token) {
+        byte[] keyBytes = Decoders.BASE64.decode(Base64.getEncoder().encodeToString(SECRET.getBytes()));
+        Key key = Keys.hmacShaKeyFor(keyBytes);
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+}
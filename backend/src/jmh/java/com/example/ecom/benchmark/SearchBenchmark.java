@@ -0,0 +1,71 @@
+package com.example.ecom.benchmark;
+
+import com.example.ecom.model.Product;
+import com.example.ecom.search.ProductSearchIndex;
+import com.example.ecom.search.SuggestionTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product search and autocomplete lookups over a synthetic catalog.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    @Param({"10000", "100000"})
+    public int catalogSize;
+
+    private ProductSearchIndex index;
+    private SuggestionTrie trie;
+
+    @Setup
+    public void setUp() {
+        List<Product> products = BenchmarkData.products(catalogSize);
+
+        index = new ProductSearchIndex();
+        index.rebuild(() -> products);
+
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(10);
+        for (Product product : products) {
+            builder.key(product.getName(), builder.suggestion(product.getName(), product.getStockQuantity()));
+        }
+        trie = builder.build();
+    }
+
+    @Benchmark
+    public List<Product> searchSingleTerm() {
+        return index.search("wireless", 100);
+    }
+
+    @Benchmark
+    public List<Product> searchTwoTermsWithPrefix() {
+        return index.search("sony stud", 100);
+    }
+
+    @Benchmark
+    public List<Product> searchInfix() {
+        return index.search("ltra", 100);
+    }
+
+    @Benchmark
+    public List<String> suggest() {
+        return trie.suggest("sam", 10);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.ecom.benchmark;
+
+import com.example.ecom.model.Order;
+import com.example.ecom.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of the largest response bodies, with the same Jackson
+ * version Spring MVC uses for them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"100", "1000"})
+    public int productCount;
+
+    private JsonMapper mapper;
+    private List<Product> products;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        mapper = JsonMapper.builder().build();
+        products = BenchmarkData.products(productCount);
+        order = BenchmarkData.order(10);
+    }
+
+    @Benchmark
+    public byte[] productList() {
+        return mapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] orderWithItems() {
+        return mapper.writeValueAsBytes(order);
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.ecom.loadtest;
+
+import com.example.ecom.EcomApplication;
+import com.example.ecom.model.Product;
+import com.example.ecom.model.User;
+import com.example.ecom.search.ProductSuggestService;
+import com.example.ecom.service.ProductService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Boots the backend on the embedded "h2" profile, seeds synthetic data, drives a
+ * weighted mix of requests from concurrent clients and prints throughput and
+ * latency percentiles per endpoint.
+ *
+ * Arguments are key=value pairs (defaults in brackets): duration [30] seconds,
+ * warmup [5] seconds, threads [8], products [5000], users [200], orders [2000],
+ * and per-scenario weights browse [30], catalog [20], search [20], suggest [15],
+ * login [3], order [10], admin [2].
+ */
+public class LoadTest {
+
+    private final Map<String, String> options;
+    private final Map<String, Integer> weights = new LinkedHashMap<>();
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+    private LoadTestSeeder seeder;
+    private RestClient client;
+    private volatile boolean recording;
+
+    LoadTest(Map<String, String> options) {
+        this.options = options;
+        for (String scenario : new String[]{"browse", "catalog", "search", "suggest", "login", "order", "admin"}) {
+            weights.put(scenario, intOption(scenario, defaultWeight(scenario)));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        new LoadTest(options).run();
+    }
+
+    void run() throws InterruptedException {
+        // A devtools restart would re-run main() in a new classloader without our arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EcomApplication.class)
+                .profiles("h2")
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+        try {
+            seeder = new LoadTestSeeder();
+            long seedStart = System.nanoTime();
+            seeder.seed(context, intOption("products", 5000), intOption("users", 200), intOption("orders", 2000));
+            context.getBean(ProductService.class).buildSearchIndex();
+            context.getBean(ProductSuggestService.class).requestRebuild();
+            System.out.printf("Seeded in %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+            String port = context.getEnvironment().getProperty("local.server.port");
+            client = RestClient.create("http://localhost:" + port);
+
+            drive(intOption("threads", 8), intOption("warmup", 5), intOption("duration", 30));
+        } finally {
+            context.close();
+        }
+    }
+
+    private void drive(int threads, int warmupSeconds, int durationSeconds) throws InterruptedException {
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    step();
+                }
+            }, "load-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, warmupEnd - System.nanoTime()));
+        latencies.clear();
+        errors.clear();
+        recording = true;
+        long start = System.nanoTime();
+
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        report((System.nanoTime() - start) / 1e9);
+    }
+
+    private void step() {
+        int total = 0;
+        for (int weight : weights.values()) {
+            total += weight;
+        }
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<String, Integer> scenario : weights.entrySet()) {
+            pick -= scenario.getValue();
+            if (pick < 0) {
+                runScenario(scenario.getKey());
+                return;
+            }
+        }
+    }
+
+    private void runScenario(String scenario) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (scenario) {
+            case "browse":
+                timed("GET /api/products", () -> get("/api/products"));
+                break;
+            case "catalog":
+                timed("GET /api/products/catalog", () -> get("/api/products/catalog?page="
+                        + random.nextInt(10) + "&size=24&sort=price,asc"));
+                break;
+            case "search":
+                timed("GET /api/products/search", () -> get("/api/products/search?keyword=" + seeder.word()));
+                break;
+            case "suggest":
+                String word = seeder.word();
+                timed("GET /api/products/suggest", () -> get("/api/products/suggest?prefix="
+                        + word.substring(0, 1 + random.nextInt(word.length()))));
+                break;
+            case "login":
+                User user = randomUser();
+                timed("POST /api/auth/login", () -> post("/api/auth/login",
+                        "{\"username\":\"" + user.getUsername() + "\",\"password\":\""
+                                + LoadTestSeeder.PASSWORD + "\"}"));
+                break;
+            case "order":
+                User buyer = randomUser();
+                timed("POST /api/auth/user/{userId}/orders", () -> post(
+                        "/api/auth/user/" + buyer.getId() + "/orders", orderJson()));
+                break;
+            case "admin":
+                timed("GET /api/admin/users", () -> get("/api/admin/users"));
+                break;
+            default:
+                throw new IllegalArgumentException(scenario);
+        }
+    }
+
+    private void timed(String endpoint, Runnable call) {
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            call.run();
+        } catch (RestClientException e) {
+            failed = true;
+        }
+        if (!recording) {
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        latencies.computeIfAbsent(endpoint, e -> new ConcurrentHistogram(3)).recordValue(micros);
+        if (failed) {
+            errors.computeIfAbsent(endpoint, e -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    private void get(String uri) {
+        client.get().uri(uri).retrieve().body(byte[].class);
+    }
+
+    private void post(String uri, String json) {
+        client.post().uri(uri).contentType(MediaType.APPLICATION_JSON).body(json).retrieve().body(byte[].class);
+    }
+
+    // The shape the client sends: the server prices lines from the catalog
+    private String orderJson() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder items = new StringBuilder();
+        int count = 1 + random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            Product product = seeder.products.get(random.nextInt(seeder.products.size()));
+            if (i > 0) {
+                items.append(',');
+            }
+            items.append("{\"productId\":").append(product.getId())
+                    .append(",\"quantity\":").append(1 + random.nextInt(3)).append('}');
+        }
+        return "{\"items\":[" + items + "],\"paymentMethod\":\"Visa ending 4242\",\"addressJson\":\"{}\"}";
+    }
+
+    private User randomUser() {
+        return seeder.users.get(ThreadLocalRandom.current().nextInt(seeder.users.size()));
+    }
+
+    private void report(double seconds) {
+        System.out.printf("%n%-38s %8s %9s %8s %8s %8s %8s %8s %7s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(latencies).entrySet()) {
+            Histogram h = entry.getValue();
+            AtomicLong failed = errors.get(entry.getKey());
+            System.out.printf(Locale.ROOT, "%-38s %8d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f %7d%n",
+                    entry.getKey(), h.getTotalCount(), h.getTotalCount() / seconds,
+                    h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(90) / 1000.0,
+                    h.getValueAtPercentile(99) / 1000.0, h.getValueAtPercentile(99.9) / 1000.0,
+                    h.getMaxValue() / 1000.0, failed == null ? 0 : failed.get());
+        }
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static int defaultWeight(String scenario) {
+        switch (scenario) {
+            case "browse":
+                return 30;
+            case "catalog":
+            case "search":
+                return 20;
+            case "suggest":
+                return 15;
+            case "order":
+                return 10;
+            case "login":
+                return 3;
+            default:
+                return 2;
+        }
+    }
+}
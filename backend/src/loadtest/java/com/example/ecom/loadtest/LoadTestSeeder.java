@@ -0,0 +1,132 @@
+package com.example.ecom.loadtest;
+
+import com.example.ecom.model.Order;
+import com.example.ecom.model.OrderItem;
+import com.example.ecom.model.Product;
+import com.example.ecom.model.User;
+import com.example.ecom.repository.OrderRepository;
+import com.example.ecom.repository.ProductRepo;
+import com.example.ecom.repository.UserRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Fills the embedded database with a deterministic synthetic catalog, users and orders.
+ */
+class LoadTestSeeder {
+
+    static final String PASSWORD = "loadtest-password";
+
+    private static final String[] BRANDS = {"Apple", "Samsung", "Sony", "Dell", "Lenovo", "Bose", "Canon", "Asus"};
+    private static final String[] CATEGORIES = {"Mobile", "Laptop", "Audio", "Camera", "Accessories", "Tablet"};
+    static final String[] WORDS = {"pro", "max", "ultra", "mini", "air", "plus", "lite", "wireless",
+            "gaming", "smart", "classic", "edge", "neo", "studio", "sport", "vision"};
+
+    private static final int BATCH = 500;
+
+    private final Random random = new Random(42);
+    private long seededOrders;
+
+    final List<Product> products = new ArrayList<>();
+    final List<User> users = new ArrayList<>();
+
+    void seed(ApplicationContext context, int productCount, int userCount, int orderCount) {
+        ProductRepo productRepo = context.getBean(ProductRepo.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        OrderRepository orderRepository = context.getBean(OrderRepository.class);
+
+        List<Product> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < productCount; i++) {
+            batch.add(product());
+            if (batch.size() == BATCH || i == productCount - 1) {
+                products.addAll(productRepo.saveAll(batch));
+                batch.clear();
+            }
+        }
+
+        // One hash shared by every user; hashing per user would dominate seeding
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        List<User> userBatch = new ArrayList<>(BATCH);
+        for (int i = 0; i < userCount; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@loadtest.example");
+            user.setPhoneNumber(String.valueOf(5550000 + i));
+            user.setFullName("Load Test User " + i);
+            user.setPassword(hash);
+            user.setRole(i == 0 ? "ROLE_ADMIN" : "ROLE_USER");
+            userBatch.add(user);
+            if (userBatch.size() == BATCH || i == userCount - 1) {
+                users.addAll(userRepository.saveAll(userBatch));
+                userBatch.clear();
+            }
+        }
+
+        List<Order> orderBatch = new ArrayList<>(BATCH);
+        for (int i = 0; i < orderCount; i++) {
+            orderBatch.add(order(users.get(random.nextInt(users.size())).getId()));
+            if (orderBatch.size() == BATCH || i == orderCount - 1) {
+                orderRepository.saveAll(orderBatch);
+                orderBatch.clear();
+            }
+        }
+    }
+
+    private Product product() {
+        String brand = BRANDS[random.nextInt(BRANDS.length)];
+        String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+        Product product = new Product();
+        product.setName(brand + " " + seededWord() + " " + seededWord() + " " + (100 + random.nextInt(900)));
+        product.setBrand(brand);
+        product.setCategory(category);
+        product.setDescription("A " + seededWord() + " " + category.toLowerCase() + " from " + brand
+                + " with " + seededWord() + " features");
+        product.setPrice(BigDecimal.valueOf(100 + random.nextInt(200000), 2));
+        product.setReleaseDate(new Date());
+        product.setProductAvailable(true);
+        product.setStockQuantity(1000000);
+        product.setImageType("image/png");
+        return product;
+    }
+
+    private Order order(Long userId) {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setOrderNumber("SEED-" + userId + "-" + (++seededOrders));
+        order.setPaymentMethod("Visa ending 4242");
+        order.setAddressJson("{\"street\":\"1 Main St\",\"city\":\"Springfield\"}");
+        BigDecimal total = BigDecimal.ZERO;
+        int items = 1 + random.nextInt(4);
+        for (int i = 0; i < items; i++) {
+            Product product = products.get(random.nextInt(products.size()));
+            OrderItem item = new OrderItem();
+            item.setProductId(product.getId().longValue());
+            item.setName(product.getName());
+            item.setPrice(product.getPrice());
+            item.setQuantity(1 + random.nextInt(3));
+            order.addItem(item);
+            total = total.add(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        order.setTotalPrice(total);
+        return order;
+    }
+
+    /**
+     * A random catalog word for load threads; never shares the seeded generator
+     */
+    String word() {
+        return WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)];
+    }
+
+    // Seeding draws from the seeded generator so every run builds the same catalog
+    private String seededWord() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
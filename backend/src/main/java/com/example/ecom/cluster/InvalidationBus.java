@@ -0,0 +1,93 @@
+package com.example.ecom.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Tells the other instances behind the load balancer which entities changed,
+ * so each can cache aggressively and still drop stale copies within a poll.
+ *
+ * Writers {@link #publish} inside their transaction and invalidate their own
+ * caches after commit as before; {@link #subscribe} listeners only see changes
+ * made by other instances, on the transport's thread.
+ */
+@Component
+public class InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    /** Key: product id */
+    public static final String PRODUCT = "product";
+
+    /** Key: username whose cached tokens must stop resolving */
+    public static final String USER = "user";
+
+    /** Key: order number */
+    public static final String ORDER = "order";
+
+    private final InvalidationTransport transport;
+    private final String nodeName;
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+    private final AtomicLong received = new AtomicLong();
+
+    public InvalidationBus(InvalidationTransport transport,
+                           @Value("${ecom.cluster.node-name:}") String nodeName) {
+        this.transport = transport;
+        // Unique per start unless configured; instances sharing a name ignore each other's changes
+        this.nodeName = nodeName.isEmpty() ? UUID.randomUUID().toString() : nodeName;
+        transport.start(this::receive);
+    }
+
+    /**
+     * Announce that an entity changed; call within the writing transaction when there is one
+     */
+    public void publish(String entity, Object key) {
+        transport.send(entity, String.valueOf(key), nodeName);
+    }
+
+    /**
+     * Run {@code listener} with the key of every change to {@code entity} made by another instance
+     */
+    public void subscribe(String entity, Consumer<String> listener) {
+        listeners.computeIfAbsent(entity, e -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    /**
+     * Events from other instances applied since startup
+     */
+    public long getReceived() {
+        return received.get();
+    }
+
+    private void receive(InvalidationEvent event) {
+        if (nodeName.equals(event.getOrigin())) {
+            return;
+        }
+        received.incrementAndGet();
+        List<Consumer<String>> subscribed = listeners.get(event.getEntity());
+        if (subscribed == null) {
+            return;
+        }
+        for (Consumer<String> listener : subscribed) {
+            try {
+                listener.accept(event.getKey());
+            } catch (RuntimeException e) {
+                log.warn("Could not apply cache invalidation {}", event, e);
+            }
+        }
+    }
+}
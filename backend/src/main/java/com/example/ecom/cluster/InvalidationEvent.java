@@ -0,0 +1,49 @@
+package com.example.ecom.cluster;
+
+/**
+ * One entity changed on some instance: caches holding it by {@link #getKey()} are stale.
+ */
+public final class InvalidationEvent {
+
+    private final long version;
+    private final String entity;
+    private final String key;
+    private final String origin;
+
+    public InvalidationEvent(long version, String entity, String key, String origin) {
+        this.version = version;
+        this.entity = entity;
+        this.key = key;
+        this.origin = origin;
+    }
+
+    /**
+     * Position of the change in the transport's log; increases in the order changes were recorded
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * One of the {@code InvalidationBus} entity names
+     */
+    public String getEntity() {
+        return entity;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Node name of the instance that made the change
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    @Override
+    public String toString() {
+        return entity + ":" + key + "@" + version + " from " + origin;
+    }
+}
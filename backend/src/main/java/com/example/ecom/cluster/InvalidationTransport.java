@@ -0,0 +1,21 @@
+package com.example.ecom.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidation events between instances; chosen with
+ * {@code ecom.cluster.invalidation.transport}.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Record a change for every instance, this one included. Joins the caller's
+     * transaction if there is one, so a rolled back change is never announced.
+     */
+    void send(String entity, String key, String origin);
+
+    /**
+     * Deliver events recorded from now on, by any instance, to {@code receiver}
+     */
+    void start(Consumer<InvalidationEvent> receiver);
+}
@@ -0,0 +1,49 @@
+package com.example.ecom.cluster;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-process transport for a single instance and for tests: events go to every
+ * bus started on it, once the sending transaction commits.
+ */
+@Component
+@ConditionalOnProperty(name = "ecom.cluster.invalidation.transport", havingValue = "loopback")
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+    private final List<Consumer<InvalidationEvent>> receivers = new CopyOnWriteArrayList<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    @Override
+    public void send(String entity, String key, String origin) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(entity, key, origin);
+                }
+            });
+        } else {
+            deliver(entity, key, origin);
+        }
+    }
+
+    @Override
+    public void start(Consumer<InvalidationEvent> receiver) {
+        receivers.add(receiver);
+    }
+
+    private void deliver(String entity, String key, String origin) {
+        InvalidationEvent event = new InvalidationEvent(versions.incrementAndGet(), entity, key, origin);
+        for (Consumer<InvalidationEvent> receiver : receivers) {
+            receiver.accept(event);
+        }
+    }
+}
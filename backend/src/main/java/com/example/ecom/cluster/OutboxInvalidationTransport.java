@@ -0,0 +1,123 @@
+package com.example.ecom.cluster;
+
+import com.example.ecom.model.CacheInvalidation;
+import com.example.ecom.repository.CacheInvalidationRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Default transport: events are rows of the {@code cache_invalidations} table,
+ * inserted in the writer's transaction and polled by every instance each
+ * {@code ecom.cluster.invalidation.poll-ms}.
+ *
+ * Row ids are not in commit order, so each poll reads every row created in the
+ * last {@code lookback-ms} (database clock) and skips the ones already delivered.
+ * A change whose transaction stays open longer than that can be missed; cache
+ * TTLs still bound how long it is served stale. Rows older than
+ * {@code retention-minutes} are deleted.
+ */
+@Component
+@ConditionalOnProperty(name = "ecom.cluster.invalidation.transport", havingValue = "outbox", matchIfMissing = true)
+public class OutboxInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxInvalidationTransport.class);
+
+    private static final long PRUNE_INTERVAL_MS = 60_000;
+
+    private final CacheInvalidationRepository repository;
+    private final long pollMillis;
+    private final Duration lookback;
+    private final Duration retention;
+
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cache-invalidation-poll");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Poller thread only: rows delivered within the lookback window, and the newest row seen
+    private final Map<Long, Instant> delivered = new HashMap<>();
+    private Instant latest;
+    private long lastPrune;
+
+    private volatile Consumer<InvalidationEvent> receiver;
+
+    public OutboxInvalidationTransport(CacheInvalidationRepository repository,
+                                       @Value("${ecom.cluster.invalidation.poll-ms:500}") long pollMillis,
+                                       @Value("${ecom.cluster.invalidation.lookback-ms:10000}") long lookbackMillis,
+                                       @Value("${ecom.cluster.invalidation.retention-minutes:60}") long retentionMinutes) {
+        this.repository = repository;
+        this.pollMillis = pollMillis;
+        this.lookback = Duration.ofMillis(lookbackMillis);
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+    }
+
+    @Override
+    public void send(String entity, String key, String origin) {
+        repository.save(new CacheInvalidation(entity, key, origin));
+    }
+
+    @Override
+    public void start(Consumer<InvalidationEvent> receiver) {
+        if (this.receiver != null) {
+            throw new IllegalStateException("Outbox transport already started");
+        }
+        this.receiver = receiver;
+        poller.scheduleWithFixedDelay(this::pollSafely, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            // Retried on the next tick; the lookback window still covers the rows
+            log.warn("Could not poll cache invalidations", e);
+        }
+    }
+
+    void poll() {
+        if (latest == null) {
+            // Earlier rows concern caches this instance did not have yet
+            Instant newest = repository.findLatestCreatedAt();
+            latest = newest != null ? newest : Instant.EPOCH;
+        }
+        Instant since = latest.minus(lookback);
+        List<CacheInvalidation> rows = repository.findByCreatedAtGreaterThanEqualOrderByIdAsc(since);
+        for (CacheInvalidation row : rows) {
+            if (delivered.putIfAbsent(row.getId(), row.getCreatedAt()) != null) {
+                continue;
+            }
+            if (row.getCreatedAt().isAfter(latest)) {
+                latest = row.getCreatedAt();
+            }
+            receiver.accept(new InvalidationEvent(row.getId(), row.getEntity(), row.getEntityKey(), row.getOrigin()));
+        }
+        Instant horizon = latest.minus(lookback);
+        delivered.values().removeIf(createdAt -> createdAt.isBefore(horizon));
+
+        long now = System.currentTimeMillis();
+        if (now - lastPrune >= PRUNE_INTERVAL_MS) {
+            lastPrune = now;
+            repository.deleteCreatedBefore(latest.minus(retention));
+        }
+    }
+}
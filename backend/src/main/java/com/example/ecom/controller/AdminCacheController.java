@@ -0,0 +1,40 @@
+package com.example.ecom.controller;
+
+import com.example.ecom.dto.CacheStatsResponse;
+import com.example.ecom.service.CatalogCache;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/caches")
+public class AdminCacheController {
+
+    private final CatalogCache catalogCache;
+
+    public AdminCacheController(CatalogCache catalogCache) {
+        this.catalogCache = catalogCache;
+    }
+
+    /**
+     * =========================
+     * CACHE STATISTICS (ADMIN)
+     * =========================
+     * Hits, misses and evictions per cache since startup
+     */
+    @GetMapping
+    public ResponseEntity<List<CacheStatsResponse>> getStats() {
+        return ResponseEntity.ok(catalogCache.stats());
+    }
+
+    /**
+     * Drop every cached catalog entry, e.g. after editing products in the database directly
+     */
+    @DeleteMapping("/catalog")
+    public ResponseEntity<Void> clearCatalog() {
+        catalogCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+}
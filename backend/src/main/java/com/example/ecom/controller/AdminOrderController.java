@@ -1,11 +1,16 @@
 package com.example.ecom.controller;
 
+import com.example.ecom.dto.OrderResponse;
 import com.example.ecom.dto.OrderUpdateRequest;
 import com.example.ecom.model.Order;
 import com.example.ecom.repository.OrderRepository;
+import com.example.ecom.service.ExportFormat;
+import com.example.ecom.service.OrderService;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/admin/orders")
@@ -13,9 +18,53 @@ import org.springframework.web.bind.annotation.*;
 public class AdminOrderController {
 
     private final OrderRepository orderRepository;
+    private final OrderService orderService;
 
-    public AdminOrderController(OrderRepository orderRepository) {
+    public AdminOrderController(OrderRepository orderRepository, OrderService orderService) {
         this.orderRepository = orderRepository;
+        this.orderService = orderService;
+    }
+
+    /**
+     * =========================
+     * LIST ORDERS (ADMIN)
+     * =========================
+     * URL: /api/admin/orders?after={nextCursor}&size=50
+     */
+    @GetMapping
+    public ResponseEntity<?> getOrders(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        try {
+            return ResponseEntity.ok(orderService.getOrdersPage(after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * =========================
+     * EXPORT ORDERS (ADMIN)
+     * =========================
+     * URL: /api/admin/orders/export?format=ndjson|csv
+     * Streamed as rows are read, so any number of orders fits in constant memory
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportOrders(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        StreamingResponseBody body = out -> orderService.exportOrders(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"orders." + exportFormat.getExtension() + "\"")
+                .body(body);
     }
 
     /**
@@ -27,7 +76,7 @@ public class AdminOrderController {
     @GetMapping("/{id}")
     public ResponseEntity<Order> getOrder(@PathVariable Long id) {
 
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithItemsById(id)
                 .orElseThrow(() ->
                         new RuntimeException("Order not found with id: " + id)
                 );
@@ -35,29 +84,28 @@ public class AdminOrderController {
         return ResponseEntity.ok(order);
     }
 
+    /**
+     * =========================
+     * FIND ORDER BY NUMBER (ADMIN)
+     * =========================
+     * URL: /api/admin/orders/number/{orderNumber}
+     */
+    @GetMapping("/number/{orderNumber}")
+    public ResponseEntity<OrderResponse> getOrderByNumber(@PathVariable String orderNumber) {
+        return ResponseEntity.ok(orderService.getOrderByNumber(orderNumber));
+    }
+
     /**
      * =========================
      * UPDATE ORDER (ADMIN)
      * =========================
+     * Cancelling puts the units back in stock; shipped or delivered orders can't be cancelled
      */
     @PutMapping("/{orderId}")
     public ResponseEntity<Order> updateOrder(
             @PathVariable Long orderId,
             @RequestBody OrderUpdateRequest request
     ) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() ->
-                        new RuntimeException("Order not found with id: " + orderId)
-                );
-
-        if (request.getStatus() != null) {
-            order.setStatus(request.getStatus());
-        }
-
-        if (request.getDeliveryDate() != null) {
-            order.setDeliveryDate(request.getDeliveryDate());
-        }
-
-        return ResponseEntity.ok(orderRepository.save(order));
+        return ResponseEntity.ok(orderService.updateOrder(orderId, request));
     }
 }
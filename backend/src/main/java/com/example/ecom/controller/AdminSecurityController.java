@@ -0,0 +1,29 @@
+package com.example.ecom.controller;
+
+import com.example.ecom.dto.PasswordHashingStatsResponse;
+import com.example.ecom.security.PasswordHasher;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/security")
+public class AdminSecurityController {
+
+    private final PasswordHasher passwordHasher;
+
+    public AdminSecurityController(PasswordHasher passwordHasher) {
+        this.passwordHasher = passwordHasher;
+    }
+
+    /**
+     * =========================
+     * PASSWORD HASHING (ADMIN)
+     * =========================
+     * Threads, queue depth, rejections and upgraded hashes since startup
+     */
+    @GetMapping("/password-hashing")
+    public ResponseEntity<PasswordHashingStatsResponse> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHasher.stats());
+    }
+}
@@ -1,23 +1,35 @@
 package com.example.ecom.controller;
 
 
+import java.time.LocalDate;
 import java.util.List;
 
-import com.example.ecom.model.Order;
+import com.example.ecom.dto.OrderResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.example.ecom.dto.AdminUserListResponse;
 import com.example.ecom.dto.UserProfileResponse;
+import com.example.ecom.model.User;
+import com.example.ecom.service.ExportFormat;
+import com.example.ecom.service.OrderService;
 import com.example.ecom.service.UserService;
+import com.example.ecom.storage.ImageResponses;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -27,28 +39,74 @@ public class AdminUserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private OrderService orderService;
+
     /**
      * =========================
      * GET ALL USERS (ADMIN)
      * =========================
-     * Lightweight list
+     * Lightweight list, one keyset page at a time:
+     * /api/admin/users?after={nextCursor}&size=50
      */
     @GetMapping("/users")
-    public ResponseEntity<List<AdminUserListResponse>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsersForAdmin());
+    public ResponseEntity<?> getAllUsers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(userService.getUsersForAdmin(after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * =========================
+     * EXPORT USERS (ADMIN)
+     * =========================
+     * /api/admin/users/export?format=ndjson|csv, streamed as rows are read
+     */
+    @GetMapping("/users/export")
+    public ResponseEntity<?> exportUsers(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        StreamingResponseBody body = out -> userService.exportUsersForAdmin(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"users." + exportFormat.getExtension() + "\"")
+                .body(body);
     }
     @GetMapping("/user/{userId}/orders")
-    public ResponseEntity<List<Order>> getOrdersByUserId(
+    public ResponseEntity<List<OrderResponse>> getOrdersByUserId(
             @PathVariable Long userId) {
 
-        List<Order> orders = userService.getOrdersByUserId(userId);
+        List<OrderResponse> orders = orderService.getOrderHistory(userId);
         return ResponseEntity.ok(orders);
     }
+
+    @GetMapping("/user/{userId}/orders/history")
+    public ResponseEntity<?> getOrderHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
+        try {
+            return ResponseEntity.ok(orderService.getOrderHistoryPage(userId, from, to, pageable));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
     /**
      * ==================================
      * GET USER PROFILE (ADMIN)
      * ==================================
-     * Full profile info + Base64 photo
+     * Full profile info + photo hash (bytes at /photo)
      */
     @GetMapping("/user/{id}")
     public ResponseEntity<UserProfileResponse> getUserProfile(
@@ -64,17 +122,17 @@ public class AdminUserController {
      * OPTIONAL – keep if already used
      */
     @GetMapping("/user/{id}/photo")
-    public ResponseEntity<byte[]> getUserProfilePhoto(
-            @PathVariable Long id) {
+    public ResponseEntity<Resource> getUserProfilePhoto(
+            @PathVariable Long id,
+            @RequestParam(value = "v", required = false) String version) {
 
-        byte[] photo = userService.getUserProfilePhoto(id);
+        User user = userService.getUserById(id);
+        Resource photo = userService.loadProfilePhoto(user);
 
-        if (photo == null || photo.length == 0) {
+        if (photo == null) {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok()
-                .header("Content-Type", "image/jpeg")
-                .body(photo);
+        return ImageResponses.ok(photo, user.getPhotoType(), user.getPhotoHash(), null, version);
     }
 }
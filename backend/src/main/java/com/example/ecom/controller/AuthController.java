@@ -1,7 +1,7 @@
 package com.example.ecom.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.MediaType;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -22,9 +22,13 @@ import com.example.ecom.dto.PaymentMethodRequest;
 import com.example.ecom.dto.RegisterRequest;
 import com.example.ecom.dto.UpdateUserRequest;
 import com.example.ecom.dto.UserProfileResponse;
+import com.example.ecom.model.User;
+import com.example.ecom.security.PasswordHashingBusyException;
 import com.example.ecom.service.UserService;
+import com.example.ecom.storage.ImageResponses;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -44,6 +48,8 @@ public class AuthController {
         try {
             String message = userService.registerUser(request);
             return ResponseEntity.ok().body(new ApiResponse(true, message));
+        } catch (PasswordHashingBusyException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
         }
@@ -60,6 +66,8 @@ public class AuthController {
                     request.getPassword()
             );
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
         }
@@ -110,8 +118,10 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(new ApiResponse(false, "File size exceeds 5MB limit"));
             }
 
-            byte[] photoData = file.getBytes();
-            UserProfileResponse response = userService.updateProfilePhoto(userId, photoData);
+            UserProfileResponse response;
+            try (InputStream photoData = file.getInputStream()) {
+                response = userService.updateProfilePhoto(userId, file.getContentType(), photoData);
+            }
             return ResponseEntity.ok(response);
         } catch (IOException e) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "Failed to read file"));
@@ -263,18 +273,18 @@ public class AuthController {
         }
     }
     @GetMapping("/user/{id}/photo")
-    public ResponseEntity<byte[]> getUserPhoto(@PathVariable Long id) {
-
-        byte[] photo = userService.getUserProfilePhoto(id);
+    public ResponseEntity<Resource> getUserPhoto(
+            @PathVariable Long id,
+            @RequestParam(value = "v", required = false) String version) {
 
+        User user = userService.getUserById(id);
+        Resource photo = userService.loadProfilePhoto(user);
 
-        if (photo == null || photo.length == 0) {
+        if (photo == null) {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.IMAGE_JPEG) // or IMAGE_PNG
-                .body(photo);
+        return ImageResponses.ok(photo, user.getPhotoType(), user.getPhotoHash(), null, version);
     }
 
 
@@ -1,60 +1,103 @@
 package com.example.ecom.controller;
 
-import com.example.ecom.dto.OrderItemRequest;
 import com.example.ecom.dto.OrderRequest;
+import com.example.ecom.dto.OrderResponse;
+import com.example.ecom.dto.OrderStatusResponse;
 import com.example.ecom.model.Order;
-import com.example.ecom.model.OrderItem;
 import com.example.ecom.repository.OrderRepository;
+import com.example.ecom.service.OrderService;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.UUID;
  
 @RestController
 @RequestMapping("/api/auth/user")
 public class OrderController {
 
     private final OrderRepository orderRepository;
+    private final OrderService orderService;
 
-    public OrderController(OrderRepository orderRepository) {
+    public OrderController(OrderRepository orderRepository, OrderService orderService) {
         this.orderRepository = orderRepository;
+        this.orderService = orderService;
     }
 @GetMapping("/{userId}/orders")
-public ResponseEntity<List<Order>> getOrders(@PathVariable Long userId) {
+public ResponseEntity<List<OrderResponse>> getOrders(@PathVariable Long userId) {
     return ResponseEntity.ok(
-            orderRepository.findByUserId(userId)
+            orderService.getOrderHistory(userId)
     );
 }
 
+    /**
+     * Paginated order history, e.g.
+     * /api/auth/user/{userId}/orders/history?from=2025-01-01&to=2025-03-31&page=0&size=20
+     */
+    @GetMapping("/{userId}/orders/history")
+    public ResponseEntity<?> getOrderHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable
+    ) {
+        try {
+            return ResponseEntity.ok(orderService.getOrderHistoryPage(userId, from, to, pageable));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Prices and stock come from the catalog; client-sent names, prices and
+     * totals are ignored. 400 for invalid items, 409 when stock runs out.
+     * Retries carrying the same Idempotency-Key get the original order back.
+     *
+     * With "Prefer: respond-async" the order is validated and its stock reserved,
+     * then queued: 202 with a tracking id and a Location to poll, or 429 when
+     * the queue is full.
+     */
     @PostMapping("/{userId}/orders")
-    public ResponseEntity<Order> createOrder(
+    public ResponseEntity<?> createOrder(
             @PathVariable Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
             @RequestBody OrderRequest request
     ) {
-
-        Order order = new Order();
-        order.setUserId(userId);
-        order.setTotalPrice(request.getTotalPrice());
-        order.setPaymentMethod(request.getPaymentMethod());
-        order.setAddressJson(request.getAddressJson());
-        order.setOrderNumber("ORD-" + UUID.randomUUID());
-
-        // ✅ IMPORTANT: map items correctly
-        for (OrderItemRequest itemReq : request.getItems()) {
-            OrderItem item = new OrderItem();
-            item.setProductId(itemReq.getProductId());   
-            item.setName(itemReq.getName());
-            item.setPrice(itemReq.getPrice());
-            item.setQuantity(itemReq.getQuantity());
-
-            order.addItem(item); // 🔥 sets BOTH sides
+        try {
+            if (prefer != null && prefer.contains("respond-async")) {
+                OrderStatusResponse status = orderService.submitOrder(userId, idempotencyKey, request);
+                return ResponseEntity.accepted()
+                        .location(URI.create("/api/auth/user/" + userId + "/orders/status/" + status.getTrackingId()))
+                        .header("Preference-Applied", "respond-async")
+                        .body(status);
+            }
+            return ResponseEntity.ok(orderService.placeOrder(userId, idempotencyKey, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
+    }
 
-        Order savedOrder = orderRepository.save(order); // 🔥 ACTUAL SAVE
+    @GetMapping("/{userId}/orders/status/{trackingId}")
+    public ResponseEntity<OrderStatusResponse> getOrderStatus(
+            @PathVariable Long userId,
+            @PathVariable String trackingId
+    ) {
+        return ResponseEntity.ok(orderService.getOrderStatus(userId, trackingId));
+    }
 
-        return ResponseEntity.ok(savedOrder);
+    @GetMapping("/{userId}/orders/number/{orderNumber}")
+    public ResponseEntity<OrderResponse> getOrderByNumber(
+            @PathVariable Long userId,
+            @PathVariable String orderNumber
+    ) {
+        return ResponseEntity.ok(orderService.getOrderByNumber(userId, orderNumber));
     }
 
     @GetMapping("/{userId}/orders/{orderId}")
@@ -73,20 +116,21 @@ public ResponseEntity<List<Order>> getOrders(@PathVariable Long userId) {
             @PathVariable Long userId,
             @PathVariable Long orderId
     ) {
-        Order order = orderRepository.findByIdAndUserId(orderId, userId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-        
-        if ("Cancelled".equals(order.getStatus())) {
-            throw new RuntimeException("Order is already cancelled");
-        }
-        
-        order.setStatus("Cancelled");
-        Order updatedOrder = orderRepository.save(order);
-        return ResponseEntity.ok(updatedOrder);
+        return ResponseEntity.ok(orderService.cancelOrder(userId, orderId));
     }
 
+    /**
+     * All orders, one keyset page at a time: /api/auth/user/orders?after={nextCursor}&size=50
+     */
     @GetMapping("/orders")
-    public ResponseEntity<List<Order>> getAllOrders() {
-        return ResponseEntity.ok(orderRepository.findAll());
+    public ResponseEntity<?> getAllOrders(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        try {
+            return ResponseEntity.ok(orderService.getOrdersPage(after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 }
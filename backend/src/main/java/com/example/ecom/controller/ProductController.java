@@ -1,8 +1,19 @@
 package com.example.ecom.controller;
 
+import com.example.ecom.dto.ProductFilter;
 import com.example.ecom.model.Product;
+import com.example.ecom.model.ProductImage;
+import com.example.ecom.search.ProductSuggestService;
+import com.example.ecom.service.CatalogSnapshot;
 import com.example.ecom.service.ProductService;
+import com.example.ecom.storage.ImageResponses;
+import com.example.ecom.storage.ImageVariant;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -18,10 +29,48 @@ public class ProductController {
     
     @Autowired
     private ProductService service;
+
+    @Autowired
+    private ProductSuggestService suggestService;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
     
+    /**
+     * Every product, from the pre-serialized snapshot; gzip-encoded when the client accepts it
+     */
     @GetMapping("/products")
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return new ResponseEntity<>(service.getAllProducts(), HttpStatus.OK);
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        CatalogSnapshot.Snapshot snapshot = catalogSnapshot.current();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (CatalogSnapshot.acceptsGzip(acceptEncoding)) {
+            return response.eTag(snapshot.getETag() + "-gz")
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(snapshot.getGzip());
+        }
+        return response.eTag(snapshot.getETag()).body(snapshot.getJson());
+    }
+    
+    /**
+     * Paginated catalog listing, e.g.
+     * /api/products/catalog?category=Laptop&minPrice=100&sort=price,asc&page=0&size=24
+     * or keyset paging with ?after=0, then ?after={nextCursor}
+     */
+    @GetMapping("/products/catalog")
+    public ResponseEntity<?> getCatalog(
+            @ModelAttribute ProductFilter filter,
+            @RequestParam(required = false) Integer after,
+            @PageableDefault(size = 24, sort = "id") Pageable pageable
+    ) {
+        try {
+            return ResponseEntity.ok(service.getCatalog(filter, after, pageable));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
     
     @GetMapping("/product/{id}")
@@ -44,26 +93,48 @@ public class ProductController {
         }
     }
     
+    /**
+     * Product image; with ?w= a thumbnail at least that wide (rounded up to a
+     * configured variant width), or the original if it is not larger
+     */
     @GetMapping("/product/{productId}/image")
-    public ResponseEntity<byte[]> getImageByProductId(@PathVariable int productId) {
-        Product product = service.getProduct(productId);
-        if (product == null || product.getImageData() == null) {
+    public ResponseEntity<Resource> getImageByProductId(
+            @PathVariable int productId,
+            @RequestParam(value = "v", required = false) String version,
+            @RequestParam(value = "w", required = false) Integer width
+    ) {
+        if (width != null && width < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        ProductImage image = service.getProductImage(productId);
+        if (image != null && width != null) {
+            ImageVariant variant = service.loadImageVariant(image, width);
+            if (variant != null) {
+                return ImageResponses.ok(variant.getResource(), variant.getContentType(), variant.getKey(),
+                        image.getContentHash(), image.getUpdatedAt(), version);
+            }
+            if (!service.hasNoImageVariant(image, width)) {
+                // The thumbnail is still being rendered: serve the original, but not as immutable
+                version = null;
+            }
+        }
+        Resource imageFile = image != null ? service.loadImage(image) : null;
+        if (imageFile == null) {
             return ResponseEntity.notFound().build();
         }
-        byte[] imageFile = product.getImageData();
-        return ResponseEntity.ok()
-                .contentType(MediaType.valueOf(product.getImageType()))
-                .body(imageFile);
+        return ImageResponses.ok(imageFile, image.getImageType(), image.getContentHash(),
+                image.getUpdatedAt(), version);
     }
     
     @PutMapping("/product/{id}")
     public ResponseEntity<String> updateProduct(
             @PathVariable int id,
             @RequestPart("product") Product product,
-            @RequestPart(value = "imageFile", required = false) MultipartFile imageFile
+            @RequestPart(value = "imageFile", required = false) MultipartFile imageFile,
+            @RequestParam(value = "loadedStock", required = false) Integer loadedStock
     ) {
         try {
-            Product updated = service.updateProduct(id, product, imageFile);
+            Product updated = service.updateProduct(id, product, loadedStock, imageFile);
             if (updated != null) {
                 return ResponseEntity.ok("updated");
             } else {
@@ -88,8 +159,15 @@ public class ProductController {
     @GetMapping("/products/search")
     public ResponseEntity<List<Product>> searchProducts(@RequestParam String keyword) {
         List<Product> products = service.searchProducts(keyword);
-        System.out.println("searching with " + keyword);
         return new ResponseEntity<>(products, HttpStatus.OK);
     }
+
+    @GetMapping("/products/suggest")
+    public ResponseEntity<List<String>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(suggestService.suggest(prefix, limit));
+    }
     
 }  // ← Make sure this closing brace is here!
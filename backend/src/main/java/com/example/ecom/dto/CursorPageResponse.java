@@ -0,0 +1,32 @@
+package com.example.ecom.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. Pass {@code nextCursor} back as
+ * {@code after} to get the following page; it is null on the last page.
+ */
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private Long nextCursor;
+    private boolean hasNext;
+
+    public CursorPageResponse(List<T> content, Long nextCursor, boolean hasNext) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.ecom.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of an order in the order-history read model.
+ */
+public class OrderItemResponse {
+
+    private Long orderId;
+    private Long id;
+    private Long productId;
+    private String name;
+    private BigDecimal price;
+    private int quantity;
+
+    public OrderItemResponse(Long orderId, Long id, Long productId, String name,
+                             BigDecimal price, int quantity) {
+        this.orderId = orderId;
+        this.id = id;
+        this.productId = productId;
+        this.name = name;
+        this.price = price;
+        this.quantity = quantity;
+    }
+
+    // Only used to group items under their order
+    @JsonIgnore
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.ecom.dto;
+
+import java.util.List;
+
+/**
+ * One page of a user's order history, newest first by default.
+ */
+public class OrderPageResponse {
+
+    private List<OrderResponse> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private boolean hasNext;
+
+    public OrderPageResponse(List<OrderResponse> content, int page, int size,
+                             long totalElements, int totalPages, boolean hasNext) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+        this.hasNext = hasNext;
+    }
+
+    public List<OrderResponse> getContent() {
+        return content;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ecom.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Order-history read model. Serializes like the {@code Order} entity but is
+ * filled from projections, so listing orders never touches lazy collections.
+ */
+public class OrderResponse {
+
+    private Long id;
+    private String orderNumber;
+    private Long userId;
+    private BigDecimal totalPrice;
+    private String status;
+    private LocalDate deliveryDate;
+    private String addressJson;
+    private String paymentMethod;
+    private Date createdAt;
+    private List<OrderItemResponse> items = new ArrayList<>();
+
+    public OrderResponse(Long id, String orderNumber, Long userId, BigDecimal totalPrice,
+                         String status, LocalDate deliveryDate, String addressJson,
+                         String paymentMethod, Date createdAt) {
+        this.id = id;
+        this.orderNumber = orderNumber;
+        this.userId = userId;
+        this.totalPrice = totalPrice;
+        this.status = status;
+        this.deliveryDate = deliveryDate;
+        this.addressJson = addressJson;
+        this.paymentMethod = paymentMethod;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getOrderNumber() {
+        return orderNumber;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDate getDeliveryDate() {
+        return deliveryDate;
+    }
+
+    public String getAddressJson() {
+        return addressJson;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<OrderItemResponse> getItems() {
+        return items;
+    }
+}
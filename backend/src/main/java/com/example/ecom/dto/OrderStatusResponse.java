@@ -0,0 +1,40 @@
+package com.example.ecom.dto;
+
+/**
+ * Progress of an order accepted for asynchronous placement. The tracking id is
+ * the order number; {@code orderId} is set once the order is saved.
+ */
+public class OrderStatusResponse {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String PLACED = "PLACED";
+    public static final String FAILED = "FAILED";
+
+    private String trackingId;
+    private String status;
+    private Long orderId;
+    private String error;
+
+    public OrderStatusResponse(String trackingId, String status, Long orderId, String error) {
+        this.trackingId = trackingId;
+        this.status = status;
+        this.orderId = orderId;
+        this.error = error;
+    }
+
+    public String getTrackingId() {
+        return trackingId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.ecom.dto;
+
+/**
+ * Load on the password hashing executor.
+ */
+public class PasswordHashingStatsResponse {
+
+    private int threads;
+    private int active;
+    private int queued;
+    private int queueCapacity;
+    private long completed;
+    private long rejected;
+    private long rehashed;
+
+    public PasswordHashingStatsResponse(int threads, int active, int queued, int queueCapacity,
+                                        long completed, long rejected, long rehashed) {
+        this.threads = threads;
+        this.active = active;
+        this.queued = queued;
+        this.queueCapacity = queueCapacity;
+        this.completed = completed;
+        this.rejected = rejected;
+        this.rehashed = rehashed;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getRehashed() {
+        return rehashed;
+    }
+}
@@ -3,23 +3,25 @@ package com.example.ecom.dto;
 import java.math.BigDecimal;
 
 public class ProductDTO {
-    private int id;
+    private Integer id;
     private String name;
     private String description;
     private String brand;
     private BigDecimal price;
     private String category;
-    private int stockQuantity;
+    private Integer stockQuantity;
     private String imageType;
     private boolean available;
+    // Content hash of the image, usable as /api/product/{id}/image?v=...
+    private String imageVersion;
     // Don't include imageData here - too heavy for list view
     
     // Constructors
     public ProductDTO() {}
     
-    public ProductDTO(int id, String name, String description, String brand, 
-                      BigDecimal price, String category, int stockQuantity, 
-                      String imageType, boolean available) {
+    public ProductDTO(Integer id, String name, String description, String brand,
+                      BigDecimal price, String category, Integer stockQuantity,
+                      String imageType, boolean available, String imageVersion) {
         this.id = id;
         this.name = name;
         this.description = description;
@@ -29,8 +31,87 @@ public class ProductDTO {
         this.stockQuantity = stockQuantity;
         this.imageType = imageType;
         this.available = available;
+        this.imageVersion = imageVersion;
     }
     
     // Getters and Setters
-    // ... generate all getters and setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public String getImageType() {
+        return imageType;
+    }
+
+    public void setImageType(String imageType) {
+        this.imageType = imageType;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    public String getImageVersion() {
+        return imageVersion;
+    }
+
+    public void setImageVersion(String imageVersion) {
+        this.imageVersion = imageVersion;
+    }
 }
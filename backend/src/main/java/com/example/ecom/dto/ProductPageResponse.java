@@ -0,0 +1,57 @@
+package com.example.ecom.dto;
+
+import java.util.List;
+
+/**
+ * One page of the product catalog. In keyset mode ({@code after} cursor)
+ * totals are not counted and come back null; follow {@code nextCursor} instead.
+ */
+public class ProductPageResponse {
+
+    private List<ProductDTO> content;
+    private int page;
+    private int size;
+    private Long totalElements;
+    private Integer totalPages;
+    private boolean hasNext;
+    private Integer nextCursor;
+
+    public ProductPageResponse(List<ProductDTO> content, int page, int size, Long totalElements,
+                               Integer totalPages, boolean hasNext, Integer nextCursor) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ProductDTO> getContent() {
+        return content;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public Integer getTotalPages() {
+        return totalPages;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+}
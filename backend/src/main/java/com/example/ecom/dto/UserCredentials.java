@@ -0,0 +1,52 @@
+package com.example.ecom.dto;
+
+/**
+ * The columns of a user needed to sign in or resolve a token; loaded as a
+ * projection so authentication never reads the profile.
+ */
+public class UserCredentials {
+
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String phoneNumber;
+    private final String password;
+    private final String role;
+
+    public UserCredentials(Long id, String username, String email, String phoneNumber,
+                           String password, String role) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.phoneNumber = phoneNumber;
+        this.password = password;
+        this.role = role;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    /**
+     * The stored hash
+     */
+    public String getPassword() {
+        return password;
+    }
+
+    public String getRole() {
+        return role;
+    }
+}
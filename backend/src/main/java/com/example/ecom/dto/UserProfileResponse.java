@@ -8,16 +8,18 @@ public class UserProfileResponse {
     private String email;
     private String phoneNumber;
     private String dateOfBirth;
+    private String photoVersion;
 
     // constructor + getters
 
-    public UserProfileResponse(Long id, String username, String fullName, String email, String phoneNumber, String dateOfBirth, String photoBase64) {
+    public UserProfileResponse(Long id, String username, String fullName, String email, String phoneNumber, String dateOfBirth, String photoVersion) {
         this.id = id;
         this.username = username;
         this.fullName = fullName;
         this.email = email;
         this.phoneNumber = phoneNumber;
         this.dateOfBirth = dateOfBirth;
+        this.photoVersion = photoVersion;
     }
 
     public Long getId() {
@@ -67,6 +69,11 @@ public class UserProfileResponse {
     public void setDateOfBirth(String dateOfBirth) {
         this.dateOfBirth = dateOfBirth;
     }
-}
-
 
+    /**
+     * Pass as {@code ?v=} on the photo URL to make it cacheable forever; null without a photo
+     */
+    public String getPhotoVersion() {
+        return photoVersion;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.ecom.inventory;
+
+import com.example.ecom.repository.ProductRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stock kept in {@code product.stock_quantity} only: each reservation is a
+ * conditional UPDATE that takes the units or changes nothing, so any number of
+ * instances can sell from the same rows without overselling. Every write joins
+ * the caller's transaction when there is one, so stock moves with the order or
+ * product change it belongs to.
+ *
+ * Stock shown with cached products is read for just the products being served,
+ * with one IN query per call. {@link #stockVersion} moves when this instance's
+ * stock writes commit, and at least every {@code ecom.inventory.stock-refresh-ms}
+ * so views built from stock also pick up sales made by other instances.
+ */
+@Service
+@ConditionalOnProperty(name = "ecom.inventory.mode", havingValue = "database", matchIfMissing = true)
+public class DatabaseInventoryService implements InventoryService {
+
+    private static final int IN_CHUNK = 500;
+
+    private final ProductRepo productRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long refreshMillis;
+
+    // Stock writes committed by this instance
+    private final AtomicLong localWrites = new AtomicLong();
+
+    public DatabaseInventoryService(ProductRepo productRepo,
+                                    JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${ecom.inventory.stock-refresh-ms:1000}") long refreshMillis) {
+        this.productRepo = productRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.refreshMillis = refreshMillis;
+    }
+
+    @Override
+    public boolean joinsCallerTransaction() {
+        return true;
+    }
+
+    @Override
+    public Integer tryReserve(Map<Integer, Integer> quantities) {
+        // Rows in id order, so concurrent checkouts never lock them in opposite orders
+        Map<Integer, Integer> ordered = new TreeMap<>(quantities);
+        return transactionTemplate.execute(status -> {
+            for (Map.Entry<Integer, Integer> line : ordered.entrySet()) {
+                if (productRepo.reserveStock(line.getKey(), line.getValue()) == 0) {
+                    // A joined caller rolls back itself; marking its transaction would fail its commit
+                    if (status.isNewTransaction()) {
+                        status.setRollbackOnly();
+                    }
+                    return line.getKey();
+                }
+            }
+            changedOnCommit();
+            return null;
+        });
+    }
+
+    @Override
+    public void release(Map<Integer, Integer> quantities) {
+        Map<Integer, Integer> ordered = new TreeMap<>(quantities);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Map.Entry<Integer, Integer> line : ordered.entrySet()) {
+                productRepo.releaseStock(line.getKey(), line.getValue());
+            }
+            changedOnCommit();
+        });
+    }
+
+    @Override
+    public void adjustStock(int productId, int delta) {
+        jdbcTemplate.update("UPDATE product SET stock_quantity = "
+                + "CASE WHEN COALESCE(stock_quantity, 0) + ? < 0 THEN 0 ELSE COALESCE(stock_quantity, 0) + ? END "
+                + "WHERE id = ?", delta, delta, productId);
+        changedOnCommit();
+    }
+
+    @Override
+    public long available(int productId) {
+        List<Integer> stock = jdbcTemplate.queryForList(
+                "SELECT stock_quantity FROM product WHERE id = ?", Integer.class, productId);
+        return stock.isEmpty() || stock.get(0) == null ? 0 : stock.get(0);
+    }
+
+    @Override
+    public long stockVersion() {
+        // Both terms only grow, so their sum changes whenever either does
+        return localWrites.get() + System.currentTimeMillis() / refreshMillis;
+    }
+
+    @Override
+    public Map<Integer, Integer> currentStock(Collection<Integer> productIds) {
+        Map<Integer, Integer> stock = new HashMap<>(productIds.size() * 2);
+        List<Integer> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + IN_CHUNK, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query("SELECT id, stock_quantity FROM product WHERE stock_quantity IS NOT NULL AND id IN ("
+                    + placeholders + ")", rs -> {
+                stock.put(rs.getInt(1), rs.getInt(2));
+            }, chunk.toArray());
+        }
+        return stock;
+    }
+
+    // Views see the new stock only once it is visible to their reads
+    private void changedOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            localWrites.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                localWrites.incrementAndGet();
+            }
+        });
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.ecom.inventory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of stock deltas not yet written to the database, kept as
+ * numbered segment files of fixed 8-byte records (product id, delta).
+ *
+ * Each write goes straight to the file, so a process crash loses nothing;
+ * a segment is forced to disk when it is rotated out.
+ */
+final class InventoryJournal implements Closeable {
+
+    private static final String PREFIX = "inventory-";
+    private static final String SUFFIX = ".journal";
+    private static final int RECORD_SIZE = 8;
+
+    private final Path dir;
+
+    private FileChannel channel;
+    private long segment;
+    private long written;
+
+    InventoryJournal(Path dir) throws IOException {
+        this.dir = Files.createDirectories(dir);
+    }
+
+    /**
+     * Numbers of the segment files on disk, oldest first
+     */
+    List<Long> segments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Adds the deltas recorded in a segment to {@code into}; a torn final record is ignored
+     */
+    void replay(long segment, Map<Integer, Long> into) throws IOException {
+        ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(path(segment)));
+        while (records.remaining() >= RECORD_SIZE) {
+            into.merge(records.getInt(), (long) records.getInt(), Long::sum);
+        }
+    }
+
+    synchronized void open(long segment) throws IOException {
+        this.channel = FileChannel.open(path(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.segment = segment;
+        this.written = channel.size();
+    }
+
+    /**
+     * Records one delta per product in a single write
+     */
+    synchronized void append(Map<Integer, Integer> deltas, int sign) throws IOException {
+        ByteBuffer records = ByteBuffer.allocate(deltas.size() * RECORD_SIZE);
+        for (Map.Entry<Integer, Integer> delta : deltas.entrySet()) {
+            records.putInt(delta.getKey()).putInt(sign * delta.getValue());
+        }
+        records.flip();
+        while (records.hasRemaining()) {
+            written += channel.write(records);
+        }
+    }
+
+    synchronized void append(int productId, long delta) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putInt(productId).putInt(Math.toIntExact(delta)).flip();
+        while (record.hasRemaining()) {
+            written += channel.write(record);
+        }
+    }
+
+    synchronized boolean isEmpty() {
+        return written == 0;
+    }
+
+    /**
+     * Forces and closes the current segment, continues in the next one and
+     * returns the number of the segment just closed
+     */
+    synchronized long rotate() throws IOException {
+        long closed = segment;
+        channel.force(false);
+        channel.close();
+        open(closed + 1);
+        return closed;
+    }
+
+    /**
+     * Deletes every segment up to and including {@code segment}
+     */
+    void deleteThrough(long segment) throws IOException {
+        for (long existing : segments()) {
+            if (existing <= segment) {
+                Files.deleteIfExists(path(existing));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private Path path(long segment) {
+        return dir.resolve(PREFIX + segment + SUFFIX);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ecom.inventory;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Product stock: reservations for orders, their release, and admin edits.
+ *
+ * {@code ecom.inventory.mode} picks the implementation: {@code database} (default)
+ * reserves with a guarded UPDATE on the product row and is safe with any number of
+ * instances; {@code memory} ({@link JournaledInventoryService}) reserves in memory
+ * and must run on a single instance that owns all stock.
+ */
+public interface InventoryService {
+
+    /**
+     * True when {@link #tryReserve}, {@link #release} and {@link #adjustStock} join the
+     * caller's transaction, so they commit or roll back with it. Otherwise they take
+     * effect at once and a caller whose transaction fails must undo them itself.
+     */
+    boolean joinsCallerTransaction();
+
+    /**
+     * Reserves every line (productId -> quantity) or none of them. Returns null on
+     * success, otherwise the id of the first product that is short; a caller whose
+     * transaction was joined must then roll it back.
+     */
+    Integer tryReserve(Map<Integer, Integer> quantities);
+
+    /**
+     * Returns units taken by {@link #tryReserve} (a failed or cancelled order)
+     */
+    void release(Map<Integer, Integer> quantities);
+
+    /**
+     * Adds {@code delta} units to a product's stock (removes them when negative),
+     * never going below zero; used for admin edits so units reserved meanwhile
+     * are kept
+     */
+    void adjustStock(int productId, int delta);
+
+    long available(int productId);
+
+    /**
+     * Changes when stock has moved; lets views built from stock levels tell
+     * whether they are out of date without a hot-path cost
+     */
+    long stockVersion();
+
+    /**
+     * Current stock of these products as far as this instance knows it; products
+     * it knows nothing about are left out, and callers keep the stock they read
+     */
+    Map<Integer, Integer> currentStock(Collection<Integer> productIds);
+}
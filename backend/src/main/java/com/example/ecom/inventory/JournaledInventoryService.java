@@ -0,0 +1,292 @@
+package com.example.ecom.inventory;
+
+import com.example.ecom.model.InventoryCheckpoint;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory stock for a single instance that owns it ({@code ecom.inventory.mode=memory}).
+ *
+ * Reservations are admitted or refused against in-memory {@link StripedStockCounter}s,
+ * so checkouts on the same product never wait on its database row. Every change is
+ * appended to the {@link InventoryJournal} before it is acknowledged and summed per
+ * product; a background flush applies the net deltas to {@code product.stock_quantity}
+ * in one batched UPDATE, together with a checkpoint of the journal segments it covers.
+ * On startup, segments newer than the checkpoint are replayed into the table.
+ *
+ * Counters are loaded from the table once and never reloaded, so no other instance
+ * may reserve stock while this one runs: with several instances each would sell the
+ * whole stock. The stock column may trail the counters by up to one flush interval.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "ecom.inventory.mode", havingValue = "memory")
+public class JournaledInventoryService implements InventoryService, InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(JournaledInventoryService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryJournal journal;
+    private final long flushIntervalMs;
+    private final int stripes;
+
+    private final Map<Integer, StripedStockCounter> counters = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> pending = new ConcurrentHashMap<>();
+
+    // Changes hold the read lock while they journal and record their delta;
+    // a flush takes the write lock to rotate the journal and drain the deltas together
+    private final ReadWriteLock rotation = new ReentrantReadWriteLock();
+
+    // Set when a flush failed and its deltas went back to pending
+    private volatile boolean retryPending;
+
+    // Bumped by each flush that found stock movements
+    private final AtomicLong stockVersion = new AtomicLong();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "inventory-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public JournaledInventoryService(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${ecom.inventory.journal-dir:./data/inventory}") String journalDir,
+                            @Value("${ecom.inventory.flush-interval-ms:200}") long flushIntervalMs,
+                            @Value("${ecom.inventory.stripes:0}") int stripes) throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.journal = new InventoryJournal(Paths.get(journalDir));
+        this.flushIntervalMs = flushIntervalMs;
+        this.stripes = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        long checkpoint = readCheckpoint();
+        long last = checkpoint;
+        Map<Integer, Long> deltas = new HashMap<>();
+        for (long segment : journal.segments()) {
+            if (segment > checkpoint) {
+                journal.replay(segment, deltas);
+            }
+            last = Math.max(last, segment);
+        }
+        if (last > checkpoint) {
+            apply(deltas, last);
+            log.info("Replayed inventory journal up to segment {} ({} products)", last, deltas.size());
+        }
+        journal.deleteThrough(last);
+        journal.open(last + 1);
+
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean joinsCallerTransaction() {
+        return false;
+    }
+
+    @Override
+    public Integer tryReserve(Map<Integer, Integer> quantities) {
+        List<Map.Entry<Integer, Integer>> taken = new ArrayList<>(quantities.size());
+        rotation.readLock().lock();
+        try {
+            for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+                if (!counter(line.getKey()).tryTake(line.getValue())) {
+                    for (Map.Entry<Integer, Integer> undo : taken) {
+                        counters.get(undo.getKey()).give(undo.getValue());
+                    }
+                    return line.getKey();
+                }
+                taken.add(line);
+            }
+            record(quantities, -1);
+            return null;
+        } catch (RuntimeException e) {
+            for (Map.Entry<Integer, Integer> undo : taken) {
+                counters.get(undo.getKey()).give(undo.getValue());
+            }
+            throw e;
+        } finally {
+            rotation.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void release(Map<Integer, Integer> quantities) {
+        rotation.readLock().lock();
+        try {
+            record(quantities, 1);
+            for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+                counter(line.getKey()).give(line.getValue());
+            }
+        } finally {
+            rotation.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void adjustStock(int productId, int delta) {
+        rotation.readLock().lock();
+        try {
+            long applied = counter(productId).adjust(delta);
+            if (applied != 0) {
+                journal.append(productId, applied);
+                pending.computeIfAbsent(productId, id -> new LongAdder()).add(applied);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            rotation.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long available(int productId) {
+        return counter(productId).available();
+    }
+
+    @Override
+    public long stockVersion() {
+        return stockVersion.get();
+    }
+
+    @Override
+    public Map<Integer, Integer> currentStock(Collection<Integer> productIds) {
+        Map<Integer, Integer> stock = new HashMap<>(productIds.size() * 2);
+        for (Integer productId : productIds) {
+            StripedStockCounter counter = counters.get(productId);
+            if (counter != null) {
+                stock.put(productId, (int) Math.min(Integer.MAX_VALUE, counter.available()));
+            }
+        }
+        return stock;
+    }
+
+    /**
+     * Writes all pending deltas to the product table now
+     */
+    public void flush() throws IOException {
+        long segment;
+        Map<Integer, Long> deltas = new HashMap<>();
+        rotation.writeLock().lock();
+        try {
+            if (journal.isEmpty() && !retryPending) {
+                return;
+            }
+            retryPending = false;
+            segment = journal.rotate();
+            for (Map.Entry<Integer, LongAdder> entry : pending.entrySet()) {
+                long delta = entry.getValue().sumThenReset();
+                if (delta != 0) {
+                    deltas.put(entry.getKey(), delta);
+                }
+            }
+        } finally {
+            rotation.writeLock().unlock();
+        }
+        if (!deltas.isEmpty()) {
+            stockVersion.incrementAndGet();
+        }
+
+        try {
+            apply(deltas, segment);
+        } catch (RuntimeException e) {
+            // Keep the segment on disk and retry these deltas with the next flush
+            for (Map.Entry<Integer, Long> delta : deltas.entrySet()) {
+                pending.computeIfAbsent(delta.getKey(), id -> new LongAdder()).add(delta.getValue());
+            }
+            retryPending = true;
+            throw e;
+        }
+        journal.deleteThrough(segment);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+        journal.close();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Inventory flush failed; deltas stay journaled and will be retried", e);
+        }
+    }
+
+    private void record(Map<Integer, Integer> quantities, int sign) {
+        try {
+            journal.append(quantities, sign);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+            pending.computeIfAbsent(line.getKey(), id -> new LongAdder()).add((long) sign * line.getValue());
+        }
+    }
+
+    private StripedStockCounter counter(int productId) {
+        // Counters are created once per product and never dropped, so no deltas for it are in flight here
+        return counters.computeIfAbsent(productId, id -> {
+            List<Integer> stock = jdbcTemplate.queryForList(
+                    "SELECT stock_quantity FROM product WHERE id = ?", Integer.class, id);
+            long available = stock.isEmpty() || stock.get(0) == null ? 0 : stock.get(0);
+            return new StripedStockCounter(Math.max(0, available), stripes);
+        });
+    }
+
+    private void apply(Map<Integer, Long> deltas, long segment) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> updates = new ArrayList<>(deltas.size());
+            for (Map.Entry<Integer, Long> delta : deltas.entrySet()) {
+                updates.add(new Object[]{delta.getValue(), delta.getKey()});
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(
+                        "UPDATE product SET stock_quantity = stock_quantity + ? WHERE id = ?", updates);
+            }
+            if (jdbcTemplate.update("UPDATE inventory_checkpoint SET last_segment = ? WHERE id = ?",
+                    segment, InventoryCheckpoint.ID) == 0) {
+                jdbcTemplate.update("INSERT INTO inventory_checkpoint (id, last_segment) VALUES (?, ?)",
+                        InventoryCheckpoint.ID, segment);
+            }
+        });
+    }
+
+    private long readCheckpoint() {
+        List<Long> checkpoint = jdbcTemplate.queryForList(
+                "SELECT last_segment FROM inventory_checkpoint WHERE id = ?", Long.class, InventoryCheckpoint.ID);
+        return checkpoint.isEmpty() || checkpoint.get(0) == null ? 0 : checkpoint.get(0);
+    }
+}
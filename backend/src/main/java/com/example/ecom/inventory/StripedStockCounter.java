@@ -0,0 +1,87 @@
+package com.example.ecom.inventory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Available units of one product, split across stripes so concurrent
+ * reservations on a hot product mostly CAS different cache lines.
+ *
+ * A reservation first tries the caller's home stripe alone. Only when that
+ * stripe is short does it take the counter's monitor, pool every stripe and
+ * spread the remainder out again, so a reservation is refused only when the
+ * whole product is short.
+ */
+final class StripedStockCounter {
+
+    // One stripe per 64-byte cache line
+    private static final int PAD = 8;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+
+    StripedStockCounter(long available, int stripes) {
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PAD);
+        spread(available);
+    }
+
+    boolean tryTake(int quantity) {
+        int cell = homeStripe() * PAD;
+        long current;
+        while ((current = cells.get(cell)) >= quantity) {
+            if (cells.compareAndSet(cell, current, current - quantity)) {
+                return true;
+            }
+        }
+        return takeSlow(quantity);
+    }
+
+    void give(int quantity) {
+        cells.addAndGet(homeStripe() * PAD, quantity);
+    }
+
+    /**
+     * Adds {@code delta} to the available count, stopping at zero; returns the
+     * change applied
+     */
+    synchronized long adjust(long delta) {
+        long previous = drain();
+        long available = Math.max(0, previous + delta);
+        spread(available);
+        return available - previous;
+    }
+
+    long available() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PAD);
+        }
+        return sum;
+    }
+
+    private synchronized boolean takeSlow(int quantity) {
+        long total = drain();
+        boolean taken = total >= quantity;
+        spread(taken ? total - quantity : total);
+        return taken;
+    }
+
+    private long drain() {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.getAndSet(i * PAD, 0);
+        }
+        return total;
+    }
+
+    private void spread(long total) {
+        long share = total / stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.addAndGet(i * PAD, i == 0 ? share + total % stripes : share);
+        }
+    }
+
+    private int homeStripe() {
+        return (int) (Thread.currentThread().getId() % stripes);
+    }
+}
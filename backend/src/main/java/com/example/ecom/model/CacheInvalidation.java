@@ -0,0 +1,53 @@
+package com.example.ecom.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+
+import java.time.Instant;
+
+/**
+ * Outbox row announcing that an entity changed, so other instances drop their
+ * cached copies; written in the same transaction as the change.
+ */
+@Entity
+@Table(name = "cache_invalidations", indexes = {
+        @Index(name = "idx_cache_invalidations_created_at", columnList = "createdAt")
+})
+@NoArgsConstructor
+@Data
+public class CacheInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 20, nullable = false)
+    private String entity;
+
+    @Column(name = "entity_key", length = 100, nullable = false)
+    private String entityKey;
+
+    // Instance that made the change; it has already invalidated its own caches
+    @Column(length = 40, nullable = false)
+    private String origin;
+
+    // Database clock, so instances with skewed clocks agree on the order of rows
+    @CreationTimestamp(source = SourceType.DB)
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    public CacheInvalidation(String entity, String entityKey, String origin) {
+        this.entity = entity;
+        this.entityKey = entityKey;
+        this.origin = origin;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.ecom.model;
+
+/**
+ * Shared settings for table-backed id generators. Entities that need batched
+ * inserts take ids from this table in blocks instead of using IDENTITY columns.
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generator";
+
+    /** Ids reserved per round trip to the generator table */
+    public static final int BLOCK_SIZE = 50;
+
+    private IdGenerators() {
+    }
+}
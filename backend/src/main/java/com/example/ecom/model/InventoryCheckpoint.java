@@ -0,0 +1,25 @@
+package com.example.ecom.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single row recording the last inventory journal segment whose deltas are
+ * in the product table; written in the same transaction as those deltas.
+ */
+@Entity
+@Table(name = "inventory_checkpoint")
+@NoArgsConstructor
+@Data
+public class InventoryCheckpoint {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    private Long lastSegment;
+}
@@ -1,6 +1,7 @@
 package com.example.ecom.model;
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import java.math.BigDecimal;
@@ -11,13 +12,20 @@ import java.util.Date;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_orders_order_number", columnNames = "order_number"),
+        @UniqueConstraint(name = "uk_orders_user_idempotency_key", columnNames = {"user_id", "idempotency_key"})})
 public class Order {
 
+    // Ids come in blocks from id_generator so inserts can be batched (IDENTITY disables batching)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "orders_id")
+    @TableGenerator(name = "orders_id", table = IdGenerators.TABLE, pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "orders", allocationSize = IdGenerators.BLOCK_SIZE)
     private Long id;
 
+    // Time-ordered "ORD-" + 13 base32 chars (OrderNumberGenerator); 40 still fits older UUID numbers
+    @Column(length = 40, nullable = false)
     private String orderNumber;
 
     private Long userId;
@@ -34,6 +42,10 @@ public class Order {
 
     private String paymentMethod;
 
+    // Client-supplied Idempotency-Key of the request that placed this order
+    @Column(length = 64)
+    private String idempotencyKey;
+
     @Temporal(TemporalType.TIMESTAMP)
     private Date createdAt;
 
@@ -128,6 +140,15 @@ public class Order {
         this.paymentMethod = paymentMethod;
     }
 
+    @JsonIgnore
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
     public Date getCreatedAt() {
         return createdAt;
     }
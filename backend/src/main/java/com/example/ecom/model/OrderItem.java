@@ -10,7 +10,9 @@ import java.math.BigDecimal;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_item_id")
+    @TableGenerator(name = "order_item_id", table = IdGenerators.TABLE, pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "order_item", allocationSize = IdGenerators.BLOCK_SIZE)
     private Long id;
 
     private Long productId;
@@ -4,12 +4,16 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.math.BigDecimal;
 import java.util.Date;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_product_category", columnList = "category"),
+        @Index(name = "idx_product_brand", columnList = "brand"),
+        @Index(name = "idx_product_price", columnList = "price")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
@@ -25,11 +29,11 @@ public class Product {
     private String category;
     private Date releaseDate;
     private boolean productAvailable;
+    // Written on insert and by InventoryService only; entity updates never overwrite it
+    @Column(updatable = false)
     private Integer stockQuantity;
 
+    // Bytes are kept in ProductImage / ImageStore, never on this row
     private String imageName;
     private String imageType;
-    @Lob
-     @JsonIgnore 
-    private byte[] imageData;
 }
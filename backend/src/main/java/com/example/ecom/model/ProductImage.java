@@ -0,0 +1,34 @@
+package com.example.ecom.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Metadata for a product's image. The bytes live in the
+ * {@link com.example.ecom.storage.ImageStore} under {@code contentHash},
+ * so loading products never touches them.
+ */
+@Entity
+@Table(name = "product_images")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ProductImage {
+
+    @Id
+    private Integer productId;
+
+    private String imageName;
+    private String imageType;
+
+    @Column(nullable = false, length = 64)
+    private String contentHash;
+
+    private long size;
+
+    private Instant updatedAt;
+}
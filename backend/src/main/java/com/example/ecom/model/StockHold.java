@@ -0,0 +1,39 @@
+package com.example.ecom.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Stock reserved for an order accepted asynchronously but not yet written.
+ * Inserted with the reservation and deleted in the transaction that writes the
+ * order (or returns the units), so a row left behind by a crash marks units to
+ * give back.
+ */
+@Entity
+@Table(name = "stock_holds", indexes = {
+        @Index(name = "idx_stock_holds_created_at", columnList = "createdAt")
+})
+@NoArgsConstructor
+@Data
+public class StockHold {
+
+    @Id
+    @Column(length = 40)
+    private String orderNumber;
+
+    // "productId:quantity" per line, comma separated
+    @Lob
+    @Column(nullable = false)
+    private String lines;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -5,12 +5,15 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Lob;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @Entity
 
-@Table(name = "app_users")
+// Username and email are indexed as unique; phone numbers are a sign-in identifier too
+@Table(name = "app_users", indexes = {
+        @Index(name = "idx_app_users_phone_number", columnList = "phone_number")
+})
 public class User {
 
     @Id
@@ -38,9 +41,13 @@ public class User {
     @Column(name = "full_name")
     private String fullName;
 
-    @Lob
-    @Column(name = "profile_photo", columnDefinition = "LONGBLOB")
-    private byte[] profilePhoto;
+    // Photo bytes live in the ImageStore, so loading a user never reads them. The
+    // content hash is null without a photo and doubles as the photo's version and ETag
+    @Column(name = "photo_hash", length = 64)
+    private String photoHash;
+
+    @Column(name = "photo_type", length = 50)
+    private String photoType;
 
     public Long getId() {
         return id;
@@ -106,11 +113,19 @@ public class User {
         this.fullName = fullName;
     }
 
-    public byte[] getProfilePhoto() {
-        return profilePhoto;
+    public String getPhotoHash() {
+        return photoHash;
+    }
+
+    public void setPhotoHash(String photoHash) {
+        this.photoHash = photoHash;
+    }
+
+    public String getPhotoType() {
+        return photoType;
     }
 
-    public void setProfilePhoto(byte[] profilePhoto) {
-        this.profilePhoto = profilePhoto;
+    public void setPhotoType(String photoType) {
+        this.photoType = photoType;
     }
 }
@@ -0,0 +1,24 @@
+package com.example.ecom.repository;
+
+import com.example.ecom.model.CacheInvalidation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+
+    List<CacheInvalidation> findByCreatedAtGreaterThanEqualOrderByIdAsc(Instant since);
+
+    @Query("SELECT MAX(c.createdAt) FROM CacheInvalidation c")
+    Instant findLatestCreatedAt();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CacheInvalidation c WHERE c.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
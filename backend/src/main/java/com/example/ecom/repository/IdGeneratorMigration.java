@@ -0,0 +1,61 @@
+package com.example.ecom.repository;
+
+import com.example.ecom.model.IdGenerators;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves each table-backed id generator past the highest id already in its table,
+ * so rows written while the column was AUTO_INCREMENT are never handed out again.
+ * Runs once the schema exists and before the application serves requests.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGeneratorMigration implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorMigration.class);
+
+    /** generator name -> entity table */
+    private static final Map<String, String> GENERATED_TABLES = new LinkedHashMap<>();
+
+    static {
+        GENERATED_TABLES.put("orders", "orders");
+        GENERATED_TABLES.put("order_item", "order_item");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdGeneratorMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        for (Map.Entry<String, String> generator : GENERATED_TABLES.entrySet()) {
+            align(generator.getKey(), generator.getValue());
+        }
+    }
+
+    private void align(String name, String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        // next_val is the top of the next block handed out, so keep a whole block above maxId
+        long floor = maxId + IdGenerators.BLOCK_SIZE + 1;
+
+        List<Long> current = jdbcTemplate.queryForList(
+                "SELECT next_val FROM " + IdGenerators.TABLE + " WHERE name = ?", Long.class, name);
+        if (current.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO " + IdGenerators.TABLE + " (name, next_val) VALUES (?, ?)", name, floor);
+        } else if (current.get(0) < floor) {
+            jdbcTemplate.update("UPDATE " + IdGenerators.TABLE + " SET next_val = ? WHERE name = ?", floor, name);
+            log.info("Moved id generator '{}' from {} to {}", name, current.get(0), floor);
+        }
+    }
+}
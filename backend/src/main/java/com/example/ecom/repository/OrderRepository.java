@@ -1,11 +1,88 @@
 package com.example.ecom.repository;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import com.example.ecom.dto.OrderItemResponse;
+import com.example.ecom.dto.OrderResponse;
 import com.example.ecom.model.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
+
+    // Orders returned as entities are serialized after the session closes, so their items come along
+    @EntityGraph(attributePaths = "items")
     Optional<Order> findByIdAndUserId(Long id, Long userId);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findWithItemsById(Long id);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    Optional<Order> findByUserIdAndOrderNumber(Long userId, String orderNumber);
+
+    /**
+     * Moves an order from {@code expected} to {@code status}; 0 when another change got there first
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status WHERE o.id = :id AND o.status = :expected")
+    int updateStatus(Long id, String expected, String status);
+
+    /**
+     * productId and total units ordered, per product
+     */
+    @Query("SELECT i.productId, SUM(i.quantity) FROM OrderItem i GROUP BY i.productId")
+    List<Object[]> sumQuantityByProduct();
+
+    // Order history is read as projections: order rows first, then their items in one query
+    String HISTORY_SELECT = "SELECT new com.example.ecom.dto.OrderResponse(" +
+            "o.id, o.orderNumber, o.userId, o.totalPrice, o.status, o.deliveryDate, " +
+            "o.addressJson, o.paymentMethod, o.createdAt) FROM Order o ";
+
+    String HISTORY_FILTER = "WHERE o.userId = :userId " +
+            "AND (:from IS NULL OR o.createdAt >= :from) " +
+            "AND (:to IS NULL OR o.createdAt < :to) ";
+
+    // Rows per round trip when streaming; MySQL only honours it with useCursorFetch=true
+    String EXPORT_FETCH_SIZE = "500";
+
+    String HISTORY_ITEM_SELECT = "SELECT new com.example.ecom.dto.OrderItemResponse(" +
+            "i.order.id, i.id, i.productId, i.name, i.price, i.quantity) FROM OrderItem i ";
+
+    // Seeks the uk_orders_order_number index
+    @Query(HISTORY_SELECT + "WHERE o.orderNumber = :orderNumber")
+    Optional<OrderResponse> findHistoryByOrderNumber(String orderNumber);
+
+    @Query(HISTORY_SELECT + "WHERE o.userId = :userId ORDER BY o.id")
+    List<OrderResponse> findHistoryByUserId(Long userId);
+
+    @Query(value = HISTORY_SELECT + HISTORY_FILTER,
+            countQuery = "SELECT COUNT(o) FROM Order o " + HISTORY_FILTER)
+    Page<OrderResponse> findHistoryPage(Long userId, Date from, Date to, Pageable pageable);
+
+    // Admin listing: keyset pages over the primary key, and a streamed export of all orders
+    @Query(HISTORY_SELECT + "WHERE o.id > :after ORDER BY o.id")
+    List<OrderResponse> findHistoryAfter(long after, Pageable limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(HISTORY_SELECT + "ORDER BY o.id")
+    Stream<OrderResponse> streamHistory();
+
+    @Query(HISTORY_ITEM_SELECT + "WHERE i.order.userId = :userId ORDER BY i.id")
+    List<OrderItemResponse> findHistoryItemsByUserId(Long userId);
+
+    @Query(HISTORY_ITEM_SELECT + "WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OrderItemResponse> findHistoryItemsByOrderIds(Collection<Long> orderIds);
 }
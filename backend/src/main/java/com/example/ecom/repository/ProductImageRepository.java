@@ -0,0 +1,8 @@
+package com.example.ecom.repository;
+
+import com.example.ecom.model.ProductImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProductImageRepository extends JpaRepository<ProductImage, Integer> {
+    long countByContentHash(String contentHash);
+}
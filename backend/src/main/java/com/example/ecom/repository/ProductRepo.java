@@ -1,10 +1,16 @@
 package com.example.ecom.repository;
 
 
+import com.example.ecom.dto.ProductDTO;
 import com.example.ecom.model.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 public interface ProductRepo extends JpaRepository<Product, Integer> {
@@ -15,4 +21,47 @@ public interface ProductRepo extends JpaRepository<Product, Integer> {
             "LOWER(p.category) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Product> searchProducts(String keyword);
 
-}
\ No newline at end of file
+    /**
+     * id, name and brand of every product, for building suggestions
+     */
+    @Query("SELECT p.id, p.name, p.brand FROM Product p")
+    List<Object[]> findSuggestionFields();
+
+    // Listing columns only, plus the image hash for versioned image URLs
+    String CATALOG_SELECT = "SELECT new com.example.ecom.dto.ProductDTO(" +
+            "p.id, p.name, p.description, p.brand, p.price, p.category, " +
+            "p.stockQuantity, p.imageType, p.productAvailable, i.contentHash) " +
+            "FROM Product p LEFT JOIN ProductImage i ON i.productId = p.id ";
+
+    String CATALOG_FILTER = "WHERE (:category IS NULL OR p.category = :category) " +
+            "AND (:brand IS NULL OR p.brand = :brand) " +
+            "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
+            "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
+            "AND (:available IS NULL OR p.productAvailable = :available) ";
+
+    @Query(value = CATALOG_SELECT + CATALOG_FILTER,
+            countQuery = "SELECT COUNT(p) FROM Product p " + CATALOG_FILTER)
+    Page<ProductDTO> findCatalogPage(String category, String brand, BigDecimal minPrice,
+                                     BigDecimal maxPrice, Boolean available, Pageable pageable);
+
+    /**
+     * Keyset page: rows after {@code afterId} in id order, without a count query
+     */
+    @Query(CATALOG_SELECT + CATALOG_FILTER + "AND p.id > :afterId ORDER BY p.id")
+    Slice<ProductDTO> findCatalogAfter(String category, String brand, BigDecimal minPrice,
+                                       BigDecimal maxPrice, Boolean available, Integer afterId,
+                                       Pageable pageable);
+
+    /**
+     * Takes {@code quantity} units of stock in one conditional UPDATE; returns 0
+     * (and changes nothing) when the product is unavailable or short of stock
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity " +
+            "WHERE p.id = :id AND p.productAvailable = true AND p.stockQuantity >= :quantity")
+    int reserveStock(Integer id, int quantity);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity WHERE p.id = :id")
+    int releaseStock(Integer id, int quantity);
+}
@@ -0,0 +1,23 @@
+package com.example.ecom.repository;
+
+import com.example.ecom.model.StockHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface StockHoldRepository extends JpaRepository<StockHold, String> {
+
+    /**
+     * Deletes these holds; the count tells the caller how many were still there to take
+     */
+    @Modifying
+    @Query("DELETE FROM StockHold h WHERE h.orderNumber IN :orderNumbers")
+    int deleteByOrderNumbers(@Param("orderNumbers") Collection<String> orderNumbers);
+
+    List<StockHold> findTop100ByCreatedAtBeforeOrderByCreatedAtAsc(Instant before);
+}
@@ -1,9 +1,20 @@
 package com.example.ecom.repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.ecom.dto.AdminUserListResponse;
+import com.example.ecom.dto.UserCredentials;
 import com.example.ecom.model.User;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -13,5 +24,54 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
     boolean existsByPhoneNumber(String phoneNumber);
-}
+    long countByPhotoHash(String photoHash);
+
+    // Credentials as a projection, so authentication never reads the profile
+    String CREDENTIALS_SELECT = "SELECT new com.example.ecom.dto.UserCredentials(" +
+            "u.id, u.username, u.email, u.phoneNumber, u.password, u.role) FROM User u ";
+
+    // Token subjects are usernames, so resolving one never looks at email or phone
+    @Query(CREDENTIALS_SELECT + "WHERE u.username = :username")
+    Optional<UserCredentials> findCredentialsByUsername(String username);
+
+    // Every user whose username, email or phone number is the identifier, in one query over their indexes
+    @Query(CREDENTIALS_SELECT +
+            "WHERE u.username = :identifier OR u.email = :identifier OR u.phoneNumber = :identifier")
+    List<UserCredentials> findCredentialsMatching(String identifier);
+
+    /**
+     * Sign-in credentials by username, else email, else phone number; for login only
+     */
+    default Optional<UserCredentials> findCredentials(String identifier) {
+        UserCredentials byEmail = null;
+        UserCredentials byPhone = null;
+        for (UserCredentials user : findCredentialsMatching(identifier)) {
+            if (identifier.equals(user.getUsername())) {
+                return Optional.of(user);
+            } else if (identifier.equals(user.getEmail())) {
+                byEmail = user;
+            } else if (byPhone == null) {
+                byPhone = user;
+            }
+        }
+        return Optional.ofNullable(byEmail != null ? byEmail : byPhone);
+    }
 
+    // Replaces the hash only if it is still the one that was verified
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :hash WHERE u.id = :id AND u.password = :previous")
+    int updatePassword(Long id, String previous, String hash);
+
+    // Admin user list as a projection
+    String ADMIN_LIST_SELECT = "SELECT new com.example.ecom.dto.AdminUserListResponse(" +
+            "u.id, u.username, u.email, u.fullName, u.role, true, " +
+            "CASE WHEN u.photoHash IS NULL THEN false ELSE true END) FROM User u ";
+
+    @Query(ADMIN_LIST_SELECT + "WHERE u.id > :after ORDER BY u.id")
+    List<AdminUserListResponse> findAdminListAfter(long after, Pageable limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = OrderRepository.EXPORT_FETCH_SIZE))
+    @Query(ADMIN_LIST_SELECT + "ORDER BY u.id")
+    Stream<AdminUserListResponse> streamAdminList();
+}
@@ -0,0 +1,411 @@
+package com.example.ecom.search;
+
+import com.example.ecom.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, brand, category and description.
+ *
+ * Each query token matches indexed terms exactly, by prefix (so the last word
+ * typed matches while it is still incomplete) or, for tokens of 3+ characters,
+ * as an infix via a trigram index over the term dictionary (the old
+ * {@code LIKE '%kw%'} behaviour). All query tokens must match. Hits are ranked
+ * with BM25 over field-weighted term frequencies.
+ *
+ * Thread-safe: many concurrent readers, writers are serialized. A rebuild loads
+ * into a separate index and swaps it in, so searches never see it half built.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float BRAND_WEIGHT = 2f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    // Expanded matches rank below exact ones
+    private static final float PREFIX_BOOST = 0.8f;
+    private static final float INFIX_BOOST = 0.5f;
+
+    // Best hit first: higher score, then lower id
+    private static final Comparator<Map.Entry<Integer, Float>> RANKING = (a, b) -> {
+        int byScore = Float.compare(b.getValue(), a.getValue());
+        return byScore != 0 ? byScore : Integer.compare(a.getKey(), b.getKey());
+    };
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Swapped whole by rebuild; read and changed under the lock
+    private Index index = new Index();
+
+    // Write count, and the count at each product's last put or remove; only kept while a rebuild loads
+    private long writes;
+    private final Map<Integer, Long> writtenAt = new HashMap<>();
+    private boolean rebuilding;
+
+    private volatile boolean ready;
+
+    private static final class Entry {
+        final Product product;
+        final Map<String, Float> terms;
+        final float length;
+
+        Entry(Product product, Map<String, Float> terms, float length) {
+            this.product = product;
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+
+    private static final class Index {
+        // term -> productId -> weighted term frequency
+        final TreeMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+        // trigram -> terms containing it
+        final Map<String, Set<String>> trigrams = new HashMap<>();
+        final Map<Integer, Entry> entries = new HashMap<>();
+        double totalLength;
+
+        void put(Entry entry) {
+            int id = entry.product.getId();
+            remove(id);
+            for (Map.Entry<String, Float> term : entry.terms.entrySet()) {
+                Map<Integer, Float> docs = postings.get(term.getKey());
+                if (docs == null) {
+                    docs = new HashMap<>();
+                    postings.put(term.getKey(), docs);
+                    for (String gram : trigramsOf(term.getKey())) {
+                        trigrams.computeIfAbsent(gram, g -> new HashSet<>()).add(term.getKey());
+                    }
+                }
+                docs.put(id, term.getValue());
+            }
+            entries.put(id, entry);
+            totalLength += entry.length;
+        }
+
+        void remove(Integer productId) {
+            Entry old = entries.remove(productId);
+            if (old == null) {
+                return;
+            }
+            totalLength -= old.length;
+            for (String term : old.terms.keySet()) {
+                Map<Integer, Float> docs = postings.get(term);
+                if (docs == null) {
+                    continue;
+                }
+                docs.remove(productId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                    for (String gram : trigramsOf(term)) {
+                        Set<String> terms = trigrams.get(gram);
+                        if (terms != null) {
+                            terms.remove(term);
+                            if (terms.isEmpty()) {
+                                trigrams.remove(gram);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Add or replace a product in the index
+     */
+    public void put(Product product) {
+        Entry entry = entry(product);
+        lock.writeLock().lock();
+        try {
+            index.put(entry);
+            written(product.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a product from the index, if present
+     */
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            index.remove(productId);
+            written(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the whole index contents with {@code products}, loaded after this is
+     * called, and mark the index ready. Puts and removes made while they load win
+     * over the loaded rows; searches keep using the previous contents until the
+     * new index is swapped in.
+     */
+    public synchronized void rebuild(Supplier<? extends Iterable<Product>> products) {
+        long start;
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            start = writes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index fresh = new Index();
+        try {
+            for (Product product : products.get()) {
+                fresh.put(entry(product));
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                writtenAt.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // The loaded rows may predate these writes
+            for (Map.Entry<Integer, Long> write : writtenAt.entrySet()) {
+                if (write.getValue() > start) {
+                    Entry live = index.entries.get(write.getKey());
+                    if (live != null) {
+                        fresh.put(live);
+                    } else {
+                        fresh.remove(write.getKey());
+                    }
+                }
+            }
+            index = fresh;
+            rebuilding = false;
+            writtenAt.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+    }
+
+    /**
+     * False until the first {@link #rebuild} has completed
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best matching products for a free-text query, highest score first. These
+     * are the indexed instances themselves: copy them before handing them out.
+     */
+    public List<Product> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Index index = this.index;
+            if (index.entries.isEmpty()) {
+                return Collections.emptyList();
+            }
+            double avgLength = index.totalLength / index.entries.size();
+
+            Map<Integer, Float> scores = null;
+            for (String token : tokens) {
+                Map<Integer, Float> tokenScores = scoreToken(index, token, avgLength);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // AND semantics: keep only products matching every token
+                    Map<Integer, Float> merged = new HashMap<>();
+                    for (Map.Entry<Integer, Float> hit : scores.entrySet()) {
+                        Float other = tokenScores.get(hit.getKey());
+                        if (other != null) {
+                            merged.put(hit.getKey(), hit.getValue() + other);
+                        }
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            // Keep only the best `limit` hits, worst at the head: short queries match most of the catalog
+            PriorityQueue<Map.Entry<Integer, Float>> best =
+                    new PriorityQueue<>(Math.min(limit, scores.size()) + 1, RANKING.reversed());
+            for (Map.Entry<Integer, Float> hit : scores.entrySet()) {
+                if (best.size() < limit) {
+                    best.add(hit);
+                } else if (RANKING.compare(hit, best.peek()) < 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            }
+
+            Product[] results = new Product[best.size()];
+            for (int i = results.length - 1; i >= 0; i--) {
+                results[i] = index.entries.get(best.poll().getKey()).product;
+            }
+            return Arrays.asList(results);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* ---------- scoring ---------- */
+
+    private static Map<Integer, Float> scoreToken(Index index, String token, double avgLength) {
+        Map<Integer, Float> scores = new HashMap<>();
+
+        NavigableMap<String, Map<Integer, Float>> prefixed =
+                index.postings.subMap(token, true, token + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Map<Integer, Float>> term : prefixed.entrySet()) {
+            float boost = term.getKey().equals(token) ? 1f : PREFIX_BOOST;
+            accumulate(index, scores, term.getValue(), boost, avgLength);
+        }
+
+        if (token.length() >= 3) {
+            for (String term : infixTerms(index, token)) {
+                if (!term.startsWith(token)) {
+                    accumulate(index, scores, index.postings.get(term), INFIX_BOOST, avgLength);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private static void accumulate(Index index, Map<Integer, Float> scores, Map<Integer, Float> docs,
+                                   float boost, double avgLength) {
+        int n = index.entries.size();
+        double idf = Math.log(1 + (n - docs.size() + 0.5) / (docs.size() + 0.5));
+
+        for (Map.Entry<Integer, Float> doc : docs.entrySet()) {
+            float tf = doc.getValue();
+            float length = index.entries.get(doc.getKey()).length;
+            double norm = tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+            float score = (float) (boost * idf * norm);
+            scores.merge(doc.getKey(), score, Math::max);
+        }
+    }
+
+    private static Set<String> infixTerms(Index index, String token) {
+        Set<String> candidates = null;
+        for (String gram : trigramsOf(token)) {
+            Set<String> terms = index.trigrams.get(gram);
+            if (terms == null) {
+                return Collections.emptySet();
+            }
+            if (candidates == null) {
+                candidates = new HashSet<>(terms);
+            } else {
+                candidates.retainAll(terms);
+            }
+        }
+        if (candidates == null) {
+            return Collections.emptySet();
+        }
+        candidates.removeIf(term -> !term.contains(token));
+        return candidates;
+    }
+
+    /* ---------- maintenance ---------- */
+
+    private static Entry entry(Product product) {
+        Map<String, Float> terms = new HashMap<>();
+        float length = 0;
+        length += addField(terms, product.getName(), NAME_WEIGHT);
+        length += addField(terms, product.getBrand(), BRAND_WEIGHT);
+        length += addField(terms, product.getCategory(), CATEGORY_WEIGHT);
+        length += addField(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+        return new Entry(product, terms, length);
+    }
+
+    // Caller holds the write lock
+    private void written(int productId) {
+        writes++;
+        if (rebuilding) {
+            writtenAt.put(productId, writes);
+        }
+    }
+
+    private static float addField(Map<String, Float> terms, String text, float weight) {
+        List<String> tokens = tokenize(text);
+        for (String token : tokens) {
+            terms.merge(token, weight, Float::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    /* ---------- text ---------- */
+
+    /**
+     * Lower-cased runs of letters and digits
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private static List<String> trigramsOf(String term) {
+        if (term.length() < 3) {
+            return Collections.emptyList();
+        }
+        List<String> grams = new ArrayList<>(term.length() - 2);
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            grams.add(term.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.ecom.search;
+
+import com.example.ecom.repository.OrderRepository;
+import com.example.ecom.repository.ProductRepo;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Autocomplete over product names and brands, ranked by units sold.
+ *
+ * Lookups read the current {@link SuggestionTrie}; product changes schedule a
+ * debounced rebuild on a background thread, and the finished trie is swapped in.
+ * Units sold are summed over all order items, so rebuilds for product changes reuse
+ * the last sums; they are reloaded every {@code ecom.search.suggest.popularity-refresh-minutes}.
+ */
+@Service
+public class ProductSuggestService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSuggestService.class);
+
+    private static final int TOP_K = 10;
+    private static final long REBUILD_DELAY_MS = 1000;
+
+    private final ProductRepo productRepo;
+    private final OrderRepository orderRepository;
+
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "suggest-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private final long popularityRefreshMinutes;
+
+    private volatile SuggestionTrie trie = SuggestionTrie.empty();
+
+    // productId -> units sold as of the last refresh; only touched on the rebuild thread
+    private Map<Integer, Long> unitsSold;
+
+    public ProductSuggestService(ProductRepo productRepo,
+                                 OrderRepository orderRepository,
+                                 @Value("${ecom.search.suggest.popularity-refresh-minutes:15}") long popularityRefreshMinutes) {
+        this.productRepo = productRepo;
+        this.orderRepository = orderRepository;
+        this.popularityRefreshMinutes = popularityRefreshMinutes;
+    }
+
+    /**
+     * Up to {@code limit} (max 10) suggestions for a typed prefix
+     */
+    public List<String> suggest(String prefix, int limit) {
+        return trie.suggest(prefix, Math.min(limit, TOP_K));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        requestRebuild();
+        rebuilder.scheduleWithFixedDelay(this::refreshPopularity,
+                popularityRefreshMinutes, popularityRefreshMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Schedule a rebuild; calls within the debounce window share one rebuild
+     */
+    public void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilder.schedule(this::rebuild, REBUILD_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        rebuildPending.set(false);
+        try {
+            if (unitsSold == null) {
+                unitsSold = loadUnitsSold();
+            }
+            trie = buildTrie(unitsSold);
+        } catch (RuntimeException e) {
+            log.warn("Suggestion rebuild failed; keeping the previous trie", e);
+        }
+    }
+
+    private void refreshPopularity() {
+        try {
+            unitsSold = loadUnitsSold();
+            trie = buildTrie(unitsSold);
+        } catch (RuntimeException e) {
+            log.warn("Suggestion popularity refresh failed; keeping the previous trie", e);
+        }
+    }
+
+    private Map<Integer, Long> loadUnitsSold() {
+        Map<Integer, Long> loaded = new HashMap<>();
+        for (Object[] row : orderRepository.sumQuantityByProduct()) {
+            if (row[0] != null && row[1] != null) {
+                loaded.put(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+            }
+        }
+        return loaded;
+    }
+
+    private SuggestionTrie buildTrie(Map<Integer, Long> unitsSold) {
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(TOP_K);
+        Map<String, Long> brandPopularity = new HashMap<>();
+        Map<String, String> brandText = new HashMap<>();
+
+        for (Object[] row : productRepo.findSuggestionFields()) {
+            Integer id = (Integer) row[0];
+            String name = (String) row[1];
+            String brand = (String) row[2];
+            long sold = unitsSold.getOrDefault(id, 0L);
+
+            if (name != null && !name.trim().isEmpty()) {
+                int suggestion = builder.suggestion(name.trim(), sold);
+                // Every word boundary is an entry point: "pro" finds "iPhone 15 Pro"
+                String key = SuggestionTrie.normalize(name);
+                builder.key(key, suggestion);
+                for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+                    builder.key(key.substring(i + 1), suggestion);
+                }
+            }
+            if (brand != null && !brand.trim().isEmpty()) {
+                String key = SuggestionTrie.normalize(brand);
+                brandPopularity.merge(key, sold, Long::sum);
+                brandText.putIfAbsent(key, brand.trim());
+            }
+        }
+
+        for (Map.Entry<String, Long> brand : brandPopularity.entrySet()) {
+            builder.key(brand.getKey(), builder.suggestion(brandText.get(brand.getKey()), brand.getValue()));
+        }
+        return builder.build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.ecom.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable radix tree for prefix suggestions.
+ *
+ * Every node stores the ids of the top-k suggestions below it, ordered by
+ * popularity, so a lookup is a walk down the prefix plus a copy of at most k
+ * strings; nothing is searched or sorted per request. Build with {@link Builder}
+ * and swap in a new instance to pick up changes.
+ */
+public final class SuggestionTrie {
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final Node root;
+    private final String[] texts;
+
+    private static final class Node {
+        final String label;
+        final char[] firstChars;
+        final Node[] children;
+        final int[] top;
+
+        Node(String label, char[] firstChars, Node[] children, int[] top) {
+            this.label = label;
+            this.firstChars = firstChars;
+            this.children = children;
+            this.top = top;
+        }
+    }
+
+    private SuggestionTrie(Node root, String[] texts) {
+        this.root = root;
+        this.texts = texts;
+    }
+
+    public static SuggestionTrie empty() {
+        return new Builder(1).build();
+    }
+
+    /**
+     * Up to {@code limit} suggestions whose keys start with {@code prefix}, most popular first
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int slot = Arrays.binarySearch(node.firstChars, key.charAt(i));
+            if (slot < 0) {
+                return Collections.emptyList();
+            }
+            Node child = node.children[slot];
+            int n = Math.min(child.label.length(), key.length() - i);
+            if (!child.label.regionMatches(0, key, i, n)) {
+                return Collections.emptyList();
+            }
+            i += n;
+            node = child;
+        }
+
+        int count = Math.min(limit, node.top.length);
+        List<String> results = new ArrayList<>(count);
+        for (int j = 0; j < count; j++) {
+            results.add(texts[node.top[j]]);
+        }
+        return results;
+    }
+
+    public int size() {
+        return texts.length;
+    }
+
+    /**
+     * Lower-cased with runs of whitespace collapsed, applied to keys and prefixes alike
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        // Runs on every keystroke, so one pass and no regex
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    public static final class Builder {
+
+        private final int topK;
+        private final List<String> texts = new ArrayList<>();
+        private final List<Long> scores = new ArrayList<>();
+        // normalized text -> id, so same-named products share one suggestion
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final MutableNode root = new MutableNode();
+
+        private static final class MutableNode {
+            final TreeMap<Character, MutableNode> children = new TreeMap<>();
+            Set<Integer> ids;
+        }
+
+        public Builder(int topK) {
+            this.topK = topK;
+        }
+
+        /**
+         * Register a suggestion text and return its id for use with {@link #key}. A text
+         * that normalizes like one already registered gets that id, and adds its popularity.
+         */
+        public int suggestion(String text, long popularity) {
+            String normalized = normalize(text);
+            Integer existing = ids.get(normalized);
+            if (existing != null) {
+                scores.set(existing, scores.get(existing) + popularity);
+                return existing;
+            }
+            texts.add(text);
+            scores.add(popularity);
+            ids.put(normalized, texts.size() - 1);
+            return texts.size() - 1;
+        }
+
+        /**
+         * Make a suggestion reachable by prefixes of {@code key}
+         */
+        public Builder key(String key, int suggestionId) {
+            String normalized = normalize(key);
+            if (normalized.isEmpty()) {
+                return this;
+            }
+            MutableNode node = root;
+            for (int i = 0; i < normalized.length(); i++) {
+                node = node.children.computeIfAbsent(normalized.charAt(i), c -> new MutableNode());
+            }
+            if (node.ids == null) {
+                node.ids = new LinkedHashSet<>();
+            }
+            node.ids.add(suggestionId);
+            return this;
+        }
+
+        public SuggestionTrie build() {
+            Comparator<Integer> byPopularity = (a, b) -> {
+                int c = Long.compare(scores.get(b), scores.get(a));
+                return c != 0 ? c : texts.get(a).compareTo(texts.get(b));
+            };
+            Node compact = compact("", root, byPopularity);
+            return new SuggestionTrie(compact, texts.toArray(new String[0]));
+        }
+
+        private Node compact(String label, MutableNode node, Comparator<Integer> byPopularity) {
+            // Collapse single-child chains without terminals into one edge label
+            StringBuilder edge = new StringBuilder(label);
+            while (node.ids == null && node.children.size() == 1 && edge.length() > 0) {
+                Map.Entry<Character, MutableNode> only = node.children.firstEntry();
+                edge.append(only.getKey());
+                node = only.getValue();
+            }
+
+            char[] firstChars = new char[node.children.size()];
+            Node[] children = new Node[node.children.size()];
+            Set<Integer> candidates = new LinkedHashSet<>();
+            if (node.ids != null) {
+                candidates.addAll(node.ids);
+            }
+
+            int slot = 0;
+            for (Map.Entry<Character, MutableNode> child : node.children.entrySet()) {
+                Node compactChild = compact(String.valueOf(child.getKey()), child.getValue(), byPopularity);
+                firstChars[slot] = child.getKey();
+                children[slot] = compactChild;
+                for (int id : compactChild.top) {
+                    candidates.add(id);
+                }
+                slot++;
+            }
+
+            List<Integer> ranked = new ArrayList<>(candidates);
+            ranked.sort(byPopularity);
+            int[] top = ranked.isEmpty() ? NO_IDS : new int[Math.min(topK, ranked.size())];
+            for (int i = 0; i < top.length; i++) {
+                top[i] = ranked.get(i);
+            }
+            return new Node(edge.toString(), firstChars, children, top);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.ecom.security;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,6 +8,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -16,11 +18,14 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenCache tokenCache;
 
     public JwtAuthFilter(JwtService jwtService,
-                         CustomUserDetailsService userDetailsService) {
+                         CustomUserDetailsService userDetailsService,
+                         TokenCache tokenCache) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenCache = tokenCache;
     }
 
     @Override
@@ -31,37 +36,59 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         String authHeader = request.getHeader("Authorization");
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")
+                || SecurityContextHolder.getContext().getAuthentication() != null) {
             filterChain.doFilter(request, response);
             return;
         }
 
         String token = authHeader.substring(7);
-        String username = jwtService.extractUsername(token);
+        UserDetails userDetails = tokenCache.get(token);
 
-        if (username != null &&
-                SecurityContextHolder.getContext().getAuthentication() == null) {
-
-            UserDetails userDetails =
-                    userDetailsService.loadUserByUsername(username);
+        if (userDetails == null) {
+            userDetails = verify(token);
+        }
 
-            if (jwtService.isTokenValid(token, userDetails)) {
+        if (userDetails != null) {
 
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(
+                            userDetails,
+                            null,
+                            userDetails.getAuthorities()
+                    );
 
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
+            authToken.setDetails(
+                    new WebAuthenticationDetailsSource().buildDetails(request)
+            );
 
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Parse the token once, load its user and cache the result; null if invalid
+     */
+    private UserDetails verify(String token) {
+        try {
+            TokenClaims claims = jwtService.verify(token);
+            String username = claims.getSubject();
+            if (username == null) {
+                return null;
+            }
+
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (!username.equals(userDetails.getUsername())) {
+                return null;
+            }
+
+            tokenCache.put(token, userDetails, claims.getExpiresAt());
+            return userDetails;
+        } catch (JwtException | IllegalArgumentException | UsernameNotFoundException e) {
+            // Unauthenticated; endpoints decide whether that is allowed
+            return null;
+        }
+    }
 }
@@ -1,75 +1,66 @@
 package com.example.ecom.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
-import java.util.function.Function;
 
+/**
+ * The application's single token engine: issues tokens at login and verifies
+ * them on requests. The signing key and parser are built once and reused.
+ */
 @Service
 public class JwtService {
 
-    // 🔑 MUST be at least 256-bit (32+ chars)
-    private static final String SECRET_KEY =
-            "my-super-secret-key-for-jwt-token-256-bit-long";
+    private final Key signKey;
+    private final JwtParser parser;
+    private final long expirationMillis;
+
+    public JwtService(
+            // 🔑 MUST be at least 256-bit (32+ chars)
+            @Value("${ecom.security.jwt.secret:ecom_secret_key_ecom_secret_key_ecom_secret_key}") String secret,
+            @Value("${ecom.security.jwt.expiration-ms:3600000}") long expirationMillis) {
+        this.signKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signKey).build();
+        this.expirationMillis = expirationMillis;
+    }
 
     /* ================= GENERATE TOKEN ================= */
 
-    public String generateToken(UserDetails userDetails) {
+    public String generateToken(String username) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24)) // 24 hrs
-                .signWith(getSignKey(), SignatureAlgorithm.HS256)
+                .setSubject(username)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expirationMillis))
+                .signWith(signKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    /* ================= VALIDATE TOKEN ================= */
-
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    /* ================= EXTRACT DATA ================= */
-
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        final Claims claims = extractAllClaims(token);
-        return resolver.apply(claims);
-    }
-
-    /* ================= INTERNAL ================= */
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public String generateToken(UserDetails userDetails) {
+        return generateToken(userDetails.getUsername());
     }
 
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(
-                java.util.Base64.getEncoder().encodeToString(SECRET_KEY.getBytes())
+    /* ================= VERIFY TOKEN ================= */
+
+    /**
+     * Check signature and expiry in a single parse.
+     * Throws {@link io.jsonwebtoken.JwtException} if the token is not valid.
+     */
+    public TokenClaims verify(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        return new TokenClaims(
+                claims.getSubject(),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L,
+                claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE
         );
-        return Keys.hmacShaKeyFor(keyBytes);
     }
 }
@@ -1,12 +1,92 @@
 package com.example.ecom.security;
 
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.ClassUtils;
 
+import java.util.HashMap;
+import java.util.Map;
 
+
+/**
+ * Password hashing. New hashes are made with {@code ecom.security.password.encoder}
+ * and stored as {@code {id}hash}; any registered algorithm still verifies, and
+ * hashes from before the prefix are BCrypt. Outdated hashes are replaced at the
+ * next successful login ({@link PasswordHasher#upgradeEncoding}).
+ *
+ * BCrypt's cost is {@code bcrypt-strength}, or with 0 the highest cost from 10
+ * to 14 that hashes within {@code target-ms} on this machine. Argon2id is
+ * available once BouncyCastle ({@code org.bouncycastle:bcprov-jdk18on}) is on
+ * the classpath.
+ */
 @Configuration
 public class PasswordConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(PasswordConfig.class);
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+    private static final int MAX_BCRYPT_STRENGTH = 14;
+
+    private static final String ARGON2_GENERATOR = "org.bouncycastle.crypto.generators.Argon2BytesGenerator";
+
+    @Bean
+    public PasswordEncoder passwordEncoder(
+            @Value("${ecom.security.password.encoder:bcrypt}") String encodeWith,
+            @Value("${ecom.security.password.bcrypt-strength:0}") int bcryptStrength,
+            @Value("${ecom.security.password.target-ms:250}") long targetMillis,
+            @Value("${ecom.security.password.argon2.memory-kib:19456}") int argon2MemoryKib,
+            @Value("${ecom.security.password.argon2.iterations:2}") int argon2Iterations,
+            @Value("${ecom.security.password.argon2.parallelism:1}") int argon2Parallelism) {
+
+        int strength = bcryptStrength > 0 ? bcryptStrength : calibrateBCrypt(targetMillis);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        if (ClassUtils.isPresent(ARGON2_GENERATOR, PasswordConfig.class.getClassLoader())) {
+            encoders.put(ARGON2, new Argon2PasswordEncoder(
+                    16, 32, argon2Parallelism, argon2MemoryKib, argon2Iterations));
+        }
+        if (!encoders.containsKey(encodeWith)) {
+            throw new IllegalStateException("Password encoder not available: " + encodeWith);
+        }
+        log.info("Hashing passwords with {} (BCrypt cost {})", encodeWith, strength);
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(encodeWith, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
 
+    /**
+     * Highest BCrypt cost within the bounds whose hash takes at most {@code targetMillis};
+     * each step up doubles the time
+     */
+    static int calibrateBCrypt(long targetMillis) {
+        // Warm up so the measurement is not of the interpreter
+        BCryptPasswordEncoder warmUp = new BCryptPasswordEncoder(4);
+        for (int i = 0; i < 20; i++) {
+            warmUp.encode("calibration");
+        }
+        long start = System.nanoTime();
+        new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH).encode("calibration");
+        double millis = Math.max(1, (System.nanoTime() - start) / 1_000_000.0);
 
+        int strength = MIN_BCRYPT_STRENGTH;
+        while (strength < MAX_BCRYPT_STRENGTH && millis * 2 <= targetMillis) {
+            millis *= 2;
+            strength++;
+        }
+        return strength;
+    }
 }
@@ -0,0 +1,124 @@
+package com.example.ecom.security;
+
+import com.example.ecom.dto.PasswordHashingStatsResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs password hashing on its own {@code ecom.security.password.threads}
+ * threads (default: half the CPUs), so a login storm cannot take every core
+ * from request handling. At most {@code queue-capacity} hashes wait; beyond
+ * that callers get {@link PasswordHashingBusyException} at once.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong rehashed = new AtomicLong();
+
+    public PasswordHasher(PasswordEncoder encoder,
+                          @Value("${ecom.security.password.threads:0}") int threads,
+                          @Value("${ecom.security.password.queue-capacity:200}") int queueCapacity) {
+        this.encoder = encoder;
+        this.queueCapacity = queueCapacity;
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "password-hash-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * Whether a stored hash uses an older algorithm or a lower cost than new hashes
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Hash in the background and hand the result to {@code store}. Skipped while
+     * the queue is more than half full; the next login tries again.
+     */
+    public void rehash(CharSequence rawPassword, Consumer<String> store) {
+        if (executor.getQueue().size() > queueCapacity / 2) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    store.accept(encoder.encode(rawPassword));
+                    rehashed.incrementAndGet();
+                } catch (RuntimeException e) {
+                    log.warn("Could not store an upgraded password hash", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Not worth failing a login over
+        }
+    }
+
+    public PasswordHashingStatsResponse stats() {
+        return new PasswordHashingStatsResponse(executor.getMaximumPoolSize(), executor.getActiveCount(),
+                executor.getQueue().size(), queueCapacity, executor.getCompletedTaskCount(),
+                rejected.get(), rehashed.get());
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> result;
+        try {
+            result = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new PasswordHashingBusyException();
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ecom.security;
+
+/**
+ * Thrown when the password hashing queue is full; the client should retry later.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException() {
+        super("Too many sign-ins in progress, please retry shortly");
+    }
+}
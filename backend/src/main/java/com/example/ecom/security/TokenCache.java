@@ -0,0 +1,132 @@
+package com.example.ecom.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verified bearer tokens and the user they resolved to, so a repeat request
+ * with the same token skips signature checking and the user lookup.
+ *
+ * Entries expire with the token, or after {@code ecom.security.token-cache.ttl-seconds}
+ * if sooner. Any change to a user's username, role, password or enabled state must
+ * call {@link #evictUser}, through {@code UserService}, which also tells the other
+ * instances. Today only a username edit does: no endpoint changes a user's role or
+ * password, users have no enabled flag, and the admin user endpoints are read-only.
+ */
+@Component
+public class TokenCache {
+
+    private final Cache<String, Entry> entries;
+
+    // username -> its cached tokens, so evictUser does not scan every entry
+    private final ConcurrentHashMap<String, Set<String>> tokensByUser = new ConcurrentHashMap<>();
+
+    private final long ttlMillis;
+
+    private static final class Entry {
+        final UserDetails user;
+        final long expiresAt;
+
+        Entry(UserDetails user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // Each entry lives until its own expiresAt, whatever happens to it meanwhile
+    private static final class UntilExpiresAt implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String token, Entry entry, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, entry.expiresAt - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    public TokenCache(@Value("${ecom.security.token-cache.max-size:10000}") long maxSize,
+                      @Value("${ecom.security.token-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilExpiresAt())
+                // Inline, so the user index never lags behind the cache
+                .executor(Runnable::run)
+                .<String, Entry>removalListener((token, entry, cause) -> {
+                    // A replaced token is still cached for the same user
+                    if (token != null && entry != null && cause != RemovalCause.REPLACED) {
+                        unindex(entry.user.getUsername(), token);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * The user for a previously verified token, or null if unknown or expired
+     */
+    public UserDetails get(String token) {
+        Entry entry = entries.getIfPresent(token);
+        return entry == null ? null : entry.user;
+    }
+
+    /**
+     * Remember a verified token until it (or the cache TTL) expires
+     */
+    public void put(String token, UserDetails user, long tokenExpiresAt) {
+        if (user instanceof CredentialsContainer) {
+            // The password hash is never needed after authentication
+            ((CredentialsContainer) user).eraseCredentials();
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = Math.min(now + ttlMillis, tokenExpiresAt);
+        if (expiresAt <= now) {
+            return;
+        }
+        tokensByUser.computeIfAbsent(user.getUsername(), u -> ConcurrentHashMap.newKeySet()).add(token);
+        entries.put(token, new Entry(user, expiresAt));
+    }
+
+    /**
+     * Drop every cached token of a user, e.g. after a role, password or username change
+     */
+    public void evictUser(String username) {
+        Set<String> tokens = tokensByUser.remove(username);
+        if (tokens != null) {
+            entries.invalidateAll(tokens);
+        }
+    }
+
+    public void clear() {
+        entries.invalidateAll();
+        tokensByUser.clear();
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    private void unindex(String username, String token) {
+        tokensByUser.computeIfPresent(username, (u, tokens) -> {
+            tokens.remove(token);
+            return tokens.isEmpty() ? null : tokens;
+        });
+    }
+}
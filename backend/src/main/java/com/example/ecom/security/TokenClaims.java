@@ -0,0 +1,35 @@
+package com.example.ecom.security;
+
+/**
+ * The verified contents of a token, parsed once per request.
+ */
+public final class TokenClaims {
+
+    private final String subject;
+    private final long issuedAt;
+    private final long expiresAt;
+
+    public TokenClaims(String subject, long issuedAt, long expiresAt) {
+        this.subject = subject;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * Epoch millis
+     */
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * Epoch millis
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
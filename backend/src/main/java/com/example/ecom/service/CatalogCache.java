@@ -0,0 +1,116 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.CacheStatsResponse;
+import com.example.ecom.model.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of catalog rows in front of {@code ProductRepo}: products
+ * by id (unknown ids included) and the full product list. Bounded by size
+ * (W-TinyLFU eviction) and by {@code ecom.catalog.cache.ttl-seconds}.
+ *
+ * {@link ProductService} invalidates entries after each product write commits.
+ * Invalidation is per key, which waits for a load of that key already in
+ * progress, so a load that read the old row can never outlive the invalidation.
+ * Cached products are shared and must not be modified.
+ */
+@Component
+public class CatalogCache {
+
+    private static final String ALL = "all";
+
+    private final Cache<Integer, Optional<Product>> products;
+    private final Cache<String, List<Product>> lists;
+
+    // Bumped by every invalidation, so views built from the catalog can tell they are out of date
+    private final AtomicLong version = new AtomicLong();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    public CatalogCache(@Value("${ecom.catalog.cache.max-size:10000}") long maxSize,
+                        @Value("${ecom.catalog.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.lists = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The product with this id, or null if there is none; loaded once per id
+     */
+    public Product getProduct(int id, IntFunction<Product> loader) {
+        return products.get(id, key -> Optional.ofNullable(loader.apply(key))).orElse(null);
+    }
+
+    /**
+     * Every product, loaded once for all callers
+     */
+    public List<Product> getAllProducts(Supplier<List<Product>> loader) {
+        return lists.get(ALL, key -> Collections.unmodifiableList(new ArrayList<>(loader.get())));
+    }
+
+    /**
+     * Forget a product that was added, changed or deleted, and the list containing it
+     */
+    public void invalidate(int id) {
+        lists.invalidate(ALL);
+        products.invalidate(id);
+        changed();
+    }
+
+    public void invalidateAll() {
+        lists.invalidateAll();
+        products.invalidateAll();
+        changed();
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Run {@code listener} after every invalidation; it must be quick, e.g. schedule work
+     */
+    public void onChange(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    private void changed() {
+        version.incrementAndGet();
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    public List<CacheStatsResponse> stats() {
+        return Arrays.asList(
+                stats("catalog.products", products),
+                stats("catalog.lists", lists));
+    }
+
+    private static CacheStatsResponse stats(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new CacheStatsResponse(name, cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount(), stats.averageLoadPenalty() / 1_000_000.0);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.ecom.service;
+
+import com.example.ecom.inventory.InventoryService;
+import com.example.ecom.storage.ContentHash;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The product list as it is sent by {@code GET /api/products}, serialized once
+ * and kept in memory as JSON and gzip bytes, so requests only copy bytes.
+ *
+ * Rebuilt in the background after each catalog change, and after stock moves,
+ * but then at most every {@code ecom.catalog.snapshot.stock-refresh-ms}. Until a
+ * rebuild finishes, requests get the previous snapshot. Product detail reads and
+ * checkout always see live stock.
+ */
+@Component
+public class CatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    /**
+     * One serialized version of the product list
+     */
+    public static final class Snapshot {
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String eTag;
+        private final long catalogVersion;
+        private final long stockVersion;
+        private final long builtAt;
+
+        Snapshot(byte[] json, byte[] gzip, String eTag, long catalogVersion, long stockVersion, long builtAt) {
+            this.json = json;
+            this.gzip = gzip;
+            this.eTag = eTag;
+            this.catalogVersion = catalogVersion;
+            this.stockVersion = stockVersion;
+            this.builtAt = builtAt;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        /**
+         * Hash of the JSON; the gzip body's ETag adds a {@code -gz} suffix
+         */
+        public String getETag() {
+            return eTag;
+        }
+    }
+
+    private final ProductService productService;
+    private final CatalogCache catalogCache;
+    private final InventoryService inventoryService;
+    private final JsonMapper jsonMapper;
+    private final long stockRefreshMs;
+
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile Snapshot snapshot;
+
+    public CatalogSnapshot(ProductService productService,
+                           CatalogCache catalogCache,
+                           InventoryService inventoryService,
+                           JsonMapper jsonMapper,
+                           @Value("${ecom.catalog.snapshot.stock-refresh-ms:1000}") long stockRefreshMs) {
+        this.productService = productService;
+        this.catalogCache = catalogCache;
+        this.inventoryService = inventoryService;
+        this.jsonMapper = jsonMapper;
+        this.stockRefreshMs = stockRefreshMs;
+        catalogCache.onChange(this::requestRebuild);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * The latest snapshot; built on the spot only the first time
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = build();
+                }
+                return snapshot;
+            }
+        }
+        if (current.catalogVersion != catalogCache.version()
+                || (current.stockVersion != inventoryService.stockVersion()
+                && System.currentTimeMillis() - current.builtAt >= stockRefreshMs)) {
+            requestRebuild();
+        }
+        return current;
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header allows a gzip body
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            builder.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    snapshot = build();
+                } catch (RuntimeException e) {
+                    log.warn("Could not rebuild the catalog snapshot; serving the previous one", e);
+                }
+            });
+        }
+    }
+
+    private Snapshot build() {
+        // Read the versions first: a change during the build makes this snapshot stale at once
+        long catalogVersion = catalogCache.version();
+        long stockVersion = inventoryService.stockVersion();
+
+        byte[] json = jsonMapper.writeValueAsBytes(productService.getAllProducts());
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String eTag = ContentHash.sha256Hex(json).substring(0, 32);
+        return new Snapshot(json, gzip.toByteArray(), eTag, catalogVersion, stockVersion, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.ecom.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps how many order-writing transactions run at once, across request threads
+ * and the async order writers.
+ *
+ * Order ids come from a table generator, which takes a new block on a second
+ * pooled connection. If every connection were held by an order transaction
+ * waiting for that block, all of them would stall until the pool timeout, so
+ * the cap must stay below the pool size (default 10). Take a permit before
+ * opening the transaction.
+ */
+@Component
+public class CheckoutPermits {
+
+    private final Semaphore permits;
+
+    public CheckoutPermits(@Value("${ecom.orders.max-concurrent-checkouts:8}") int maxConcurrentCheckouts) {
+        this.permits = new Semaphore(maxConcurrentCheckouts, true);
+    }
+
+    public void acquire() {
+        permits.acquireUninterruptibly();
+    }
+
+    public void release() {
+        permits.release();
+    }
+}
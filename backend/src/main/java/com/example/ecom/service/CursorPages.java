@@ -0,0 +1,43 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.CursorPageResponse;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination by ascending id: each page is an index range scan from the
+ * cursor, so late pages cost the same as the first and no count query runs.
+ */
+final class CursorPages {
+
+    static final int MAX_SIZE = 100;
+
+    private CursorPages() {
+    }
+
+    /**
+     * Rows to fetch for a page of {@code size}: one extra to tell whether another page follows
+     */
+    static Pageable limit(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("'size' must be at least 1");
+        }
+        return PageRequest.of(0, Math.min(size, MAX_SIZE) + 1);
+    }
+
+    static long after(Long cursor) {
+        return cursor == null ? 0 : cursor;
+    }
+
+    static <T> CursorPageResponse<T> of(List<T> rows, Pageable limit, Function<T, Long> id) {
+        int size = limit.getPageSize() - 1;
+        if (rows.size() <= size) {
+            return new CursorPageResponse<>(rows, null, false);
+        }
+        List<T> content = rows.subList(0, size);
+        return new CursorPageResponse<>(content, id.apply(content.get(size - 1)), true);
+    }
+}
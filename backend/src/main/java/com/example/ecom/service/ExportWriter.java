@@ -0,0 +1,86 @@
+package com.example.ecom.service;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * Writes export rows to a response body one at a time, as NDJSON (the row as
+ * the API would serialize it) or CSV (the columns given by {@code csvRow}).
+ */
+final class ExportWriter<T> {
+
+    private static final byte[] NEWLINE = {'\n'};
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final ExportFormat format;
+    private final OutputStream out;
+    private final JsonMapper jsonMapper;
+    private final Function<T, Object[]> csvRow;
+
+    ExportWriter(ExportFormat format, OutputStream out, JsonMapper jsonMapper,
+                 String[] csvHeader, Function<T, Object[]> csvRow) throws IOException {
+        this.format = format;
+        this.out = new BufferedOutputStream(out, 64 * 1024);
+        this.jsonMapper = jsonMapper;
+        this.csvRow = csvRow;
+        if (format == ExportFormat.CSV) {
+            writeCsvLine(csvHeader);
+        }
+    }
+
+    void write(T row) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            out.write(jsonMapper.writeValueAsBytes(row));
+            out.write(NEWLINE);
+        } else {
+            writeCsvLine(csvRow.apply(row));
+        }
+    }
+
+    void finish() throws IOException {
+        out.flush();
+    }
+
+    private void writeCsvLine(Object[] fields) throws IOException {
+        StringBuilder line = new StringBuilder(128);
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            appendCsv(line, fields[i]);
+        }
+        out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+        out.write(CRLF);
+    }
+
+    static void appendCsv(StringBuilder line, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Date) {
+            line.append(((Date) value).toInstant());
+            return;
+        }
+        if (value instanceof BigDecimal) {
+            line.append(((BigDecimal) value).toPlainString());
+            return;
+        }
+        String text = value.toString();
+        if (value instanceof String && !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            // Keep spreadsheets from evaluating user-entered text as a formula
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            line.append(text);
+            return;
+        }
+        line.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.ecom.service;
+
+/**
+ * Thrown when an order asks for more units of a product than are in stock.
+ * The surrounding transaction is rolled back, releasing any stock already reserved.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private final Integer productId;
+
+    public InsufficientStockException(Integer productId, String productName) {
+        super("Not enough stock for " + productName);
+        this.productId = productId;
+    }
+
+    public Integer getProductId() {
+        return productId;
+    }
+}
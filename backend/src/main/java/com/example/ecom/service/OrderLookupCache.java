@@ -0,0 +1,52 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.OrderResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Orders recently looked up by order number, so support staff and customers
+ * reopening the same order skip the database.
+ *
+ * Entries are evicted when the order is cancelled or updated, on other
+ * instances through the {@code InvalidationBus}; the TTL
+ * ({@code ecom.orders.lookup-cache.ttl-seconds}) bounds anything it misses.
+ */
+@Component
+public class OrderLookupCache {
+
+    private final Cache<String, OrderResponse> entries;
+
+    public OrderLookupCache(@Value("${ecom.orders.lookup-cache.max-size:1000}") long maxSize,
+                            @Value("${ecom.orders.lookup-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * The cached order with this number, or null if not cached or expired
+     */
+    public OrderResponse get(String orderNumber) {
+        return entries.getIfPresent(orderNumber);
+    }
+
+    public void put(OrderResponse order) {
+        entries.put(order.getOrderNumber(), order);
+    }
+
+    public void evict(String orderNumber) {
+        if (orderNumber != null) {
+            entries.invalidate(orderNumber);
+        }
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.ecom.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style order numbers: 41 bits of milliseconds since 2025-01-01,
+ * a 10-bit node id ({@code ecom.orders.node-id}, unique per running instance)
+ * and a 12-bit per-millisecond sequence, written as 13 Crockford base32
+ * characters, e.g. {@code ORD-0CW8J2H7G0001}.
+ *
+ * Numbers from one node are strictly increasing, and the fixed width keeps
+ * string order equal to numeric order, so new rows append to the end of the
+ * order_number index. Lock-free: a single CAS on the last issued timestamp and
+ * sequence. A burst of more than 4096 numbers in a millisecond, or a clock that
+ * steps back, borrows from the following milliseconds instead of waiting.
+ *
+ * Without a configured node id each start picks a random one, which also keeps a
+ * restarted instance from reissuing numbers it borrowed before the restart. Two
+ * instances can still draw the same id, so callers retry an insert that hits
+ * {@code uk_orders_order_number} with a fresh number ({@link #isDuplicate}).
+ */
+@Component
+public class OrderNumberGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderNumberGenerator.class);
+
+    static final long EPOCH = 1735689600000L; // 2025-01-01T00:00:00Z
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final String PREFIX = "ORD-";
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13; // ceil(64 / 5)
+
+    private final long node;
+    // (milliseconds since EPOCH << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong last = new AtomicLong();
+
+    @Autowired
+    public OrderNumberGenerator(@Value("${ecom.orders.node-id:}") String node) {
+        this(node.trim().isEmpty() ? randomNode() : Integer.parseInt(node.trim()));
+    }
+
+    public OrderNumberGenerator(int node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("ecom.orders.node-id must be between 0 and " + MAX_NODE);
+        }
+        this.node = node;
+    }
+
+    /**
+     * Whether an insert failed because its order number was already taken
+     */
+    public static boolean isDuplicate(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains("uk_orders_order_number");
+    }
+
+    public String nextOrderNumber() {
+        return PREFIX + encode(nextId());
+    }
+
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        while (true) {
+            long prev = last.get();
+            long next = now > prev ? now : prev + 1;
+            if (last.compareAndSet(prev, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                        | (node << SEQUENCE_BITS)
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    private static int randomNode() {
+        int node = ThreadLocalRandom.current().nextInt(MAX_NODE + 1);
+        log.info("No ecom.orders.node-id configured; using random node id {}", node);
+        return node;
+    }
+
+    static String encode(long value) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = CROCKFORD[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+}
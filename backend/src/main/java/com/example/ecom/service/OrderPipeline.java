@@ -0,0 +1,302 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.OrderStatusResponse;
+import com.example.ecom.model.Order;
+import com.example.ecom.model.OrderItem;
+import com.example.ecom.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes orders accepted asynchronously. Orders arrive priced and with their
+ * stock already reserved; a bounded queue holds them until one of the writer
+ * threads commits them in batches, one transaction per batch.
+ *
+ * When the queue is full, {@link #submit} refuses the order instead of letting
+ * request threads pile up on the connection pool. Progress is kept per order
+ * number for {@code ecom.orders.async.status-ttl-seconds} after completion.
+ *
+ * The queue lives in memory: orders still in it when the instance dies are lost
+ * and the client sees them fail. Their reservations are recorded as
+ * {@link StockHolds}, which the writers sweep, here or on any other instance,
+ * once they expire, so the units go back to stock.
+ */
+@Component
+public class OrderPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderPipeline.class);
+
+    private static final long PURGE_INTERVAL_MS = 10000;
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderReplayCache replayCache;
+    private final CheckoutPermits checkoutPermits;
+    private final StockHolds stockHolds;
+
+    private final BlockingQueue<Order> queue;
+    private final int workers;
+    private final int batchSize;
+    private final long statusTtlMillis;
+
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    // Keyed orders accepted but not yet written: user:key -> tracking id
+    private final Map<String, String> pendingKeys = new ConcurrentHashMap<>();
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    // The order's hold was swept as expired and its units already went back
+    private static final class HoldExpiredException extends RuntimeException {
+        HoldExpiredException(String orderNumber) {
+            super("Stock hold of order " + orderNumber + " expired before it was written");
+        }
+    }
+
+    private static final class Ticket {
+        final Long userId;
+        final OrderStatusResponse status;
+        final long completedAt;
+
+        Ticket(Long userId, OrderStatusResponse status, long completedAt) {
+            this.userId = userId;
+            this.status = status;
+            this.completedAt = completedAt;
+        }
+    }
+
+    public OrderPipeline(OrderRepository orderRepository,
+                         TransactionTemplate transactionTemplate,
+                         OrderReplayCache replayCache,
+                         CheckoutPermits checkoutPermits,
+                         StockHolds stockHolds,
+                         @Value("${ecom.orders.async.queue-capacity:1000}") int queueCapacity,
+                         @Value("${ecom.orders.async.workers:2}") int workers,
+                         @Value("${ecom.orders.async.batch-size:50}") int batchSize,
+                         @Value("${ecom.orders.async.status-ttl-seconds:600}") long statusTtlSeconds) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.replayCache = replayCache;
+        this.checkoutPermits = checkoutPermits;
+        this.stockHolds = stockHolds;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.statusTtlMillis = statusTtlSeconds * 1000;
+    }
+
+    @PostConstruct
+    void start() {
+        for (int i = 0; i < workers; i++) {
+            Thread writer = new Thread(this::drain, "order-writer-" + i);
+            writer.setDaemon(true);
+            writers.add(writer);
+            writer.start();
+        }
+    }
+
+    /**
+     * Queues a priced order whose stock is reserved; returns null (and keeps
+     * nothing) when the queue is full
+     */
+    public OrderStatusResponse submit(Order order) {
+        OrderStatusResponse queued = new OrderStatusResponse(
+                order.getOrderNumber(), OrderStatusResponse.QUEUED, null, null);
+        tickets.put(order.getOrderNumber(), new Ticket(order.getUserId(), queued, 0));
+        if (!queue.offer(order)) {
+            tickets.remove(order.getOrderNumber());
+            return null;
+        }
+        return queued;
+    }
+
+    /**
+     * Claims a user's {@code Idempotency-Key} for an order about to be submitted
+     * under {@code trackingId}, until it is written or fails. Returns the tracking
+     * id of the order already holding the key, or null if the claim succeeded.
+     */
+    public String claim(Long userId, String idempotencyKey, String trackingId) {
+        return pendingKeys.putIfAbsent(OrderReplayCache.slot(userId, idempotencyKey), trackingId);
+    }
+
+    /**
+     * Drops a claim whose order was never queued
+     */
+    public void unclaim(Long userId, String idempotencyKey, String trackingId) {
+        pendingKeys.remove(OrderReplayCache.slot(userId, idempotencyKey), trackingId);
+    }
+
+    /**
+     * Progress of a queued or recently finished order of this user, or null if unknown here
+     */
+    public OrderStatusResponse status(Long userId, String trackingId) {
+        Ticket ticket = tickets.get(trackingId);
+        return ticket != null && ticket.userId.equals(userId) ? ticket.status : null;
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Writers finish what is queued before exiting
+        running = false;
+        for (Thread writer : writers) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        List<Order> unwritten = new ArrayList<>(queue);
+        if (!unwritten.isEmpty()) {
+            List<String> numbers = new ArrayList<>(unwritten.size());
+            for (Order order : unwritten) {
+                numbers.add(order.getOrderNumber());
+            }
+            log.warn("Stopping with {} queued orders unwritten; their stock goes back once their holds expire: {}",
+                    numbers.size(), numbers);
+        }
+    }
+
+    private void drain() {
+        List<Order> batch = new ArrayList<>(batchSize);
+        // First pass right away, so holds left by a crash are swept at startup
+        long lastPurge = 0;
+        while (running || !queue.isEmpty()) {
+            try {
+                if (System.currentTimeMillis() - lastPurge > PURGE_INTERVAL_MS) {
+                    lastPurge = System.currentTimeMillis();
+                    purgeTickets();
+                    sweepHolds();
+                }
+                Order first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order writer failed on a batch of {}", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Order> batch) {
+        checkoutPermits.acquire();
+        try {
+            try {
+                List<String> numbers = new ArrayList<>(batch.size());
+                for (Order order : batch) {
+                    numbers.add(order.getOrderNumber());
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (stockHolds.take(numbers) != batch.size()) {
+                        throw new IllegalStateException("A stock hold in the batch has expired");
+                    }
+                    orderRepository.saveAll(batch);
+                });
+                for (Order order : batch) {
+                    placed(order);
+                }
+                return;
+            } catch (RuntimeException e) {
+                log.debug("Batch of {} orders failed, writing them one by one", batch.size(), e);
+            }
+
+            // One bad order must not sink the rest of its batch
+            for (Order order : batch) {
+                clearIds(order);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        if (stockHolds.take(Collections.singleton(order.getOrderNumber())) == 0) {
+                            throw new HoldExpiredException(order.getOrderNumber());
+                        }
+                        orderRepository.save(order);
+                    });
+                    placed(order);
+                } catch (RuntimeException e) {
+                    failed(order, e);
+                }
+            }
+        } finally {
+            checkoutPermits.release();
+        }
+    }
+
+    private void placed(Order order) {
+        complete(order, new OrderStatusResponse(
+                order.getOrderNumber(), OrderStatusResponse.PLACED, order.getId(), null));
+        if (order.getIdempotencyKey() != null) {
+            // Cached before the claim goes, so a retry always finds one or the other
+            replayCache.put(order.getUserId(), order.getIdempotencyKey(), order);
+            unclaim(order.getUserId(), order.getIdempotencyKey(), order.getOrderNumber());
+        }
+    }
+
+    private void failed(Order order, RuntimeException e) {
+        log.warn("Could not place queued order {}", order.getOrderNumber(), e);
+        String reason;
+        if (e instanceof HoldExpiredException) {
+            reason = "Order waited too long to be written";
+        } else {
+            try {
+                stockHolds.release(order);
+            } catch (RuntimeException releaseFailed) {
+                // The hold stays, so the sweep gives the units back later
+                log.warn("Could not release stock of order {}", order.getOrderNumber(), releaseFailed);
+            }
+            reason = e instanceof DataIntegrityViolationException
+                    && !OrderNumberGenerator.isDuplicate((DataIntegrityViolationException) e)
+                    ? "An order with this Idempotency-Key already exists"
+                    : "Order could not be saved";
+        }
+        complete(order, new OrderStatusResponse(order.getOrderNumber(), OrderStatusResponse.FAILED, null, reason));
+        if (order.getIdempotencyKey() != null) {
+            unclaim(order.getUserId(), order.getIdempotencyKey(), order.getOrderNumber());
+        }
+    }
+
+    private void complete(Order order, OrderStatusResponse status) {
+        tickets.put(order.getOrderNumber(), new Ticket(order.getUserId(), status, System.currentTimeMillis()));
+    }
+
+    // Ids handed out inside a rolled-back batch would make save() treat the order as detached
+    private static void clearIds(Order order) {
+        order.setId(null);
+        for (OrderItem item : order.getItems()) {
+            item.setId(null);
+        }
+    }
+
+    private void sweepHolds() {
+        try {
+            stockHolds.sweepExpired();
+        } catch (RuntimeException e) {
+            log.warn("Stock hold sweep failed; retrying on the next pass", e);
+        }
+    }
+
+    private void purgeTickets() {
+        long cutoff = System.currentTimeMillis() - statusTtlMillis;
+        tickets.values().removeIf(ticket -> ticket.completedAt != 0 && ticket.completedAt < cutoff);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ecom.service;
+
+/**
+ * Thrown when the async order queue has no room; the client should retry later.
+ */
+public class OrderQueueFullException extends RuntimeException {
+
+    public OrderQueueFullException() {
+        super("Too many orders in progress, please retry shortly");
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.ecom.service;
+
+import com.example.ecom.model.Order;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Orders recently placed with an {@code Idempotency-Key}, so a retried request
+ * is answered from memory. The key is also stored on the order row, which
+ * covers replays after eviction or a restart.
+ */
+@Component
+public class OrderReplayCache {
+
+    private final Cache<String, Order> entries;
+
+    public OrderReplayCache(@Value("${ecom.orders.idempotency.max-size:10000}") long maxSize,
+                            @Value("${ecom.orders.idempotency.ttl-seconds:86400}") long ttlSeconds) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * The order placed earlier by this user with this key, or null if not cached
+     */
+    public Order get(Long userId, String key) {
+        return entries.getIfPresent(slot(userId, key));
+    }
+
+    public void put(Long userId, String key, Order order) {
+        entries.put(slot(userId, key), order);
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    static String slot(Long userId, String key) {
+        return userId + ":" + key;
+    }
+}
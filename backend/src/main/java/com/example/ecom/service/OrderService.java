@@ -0,0 +1,613 @@
+package com.example.ecom.service;
+
+import com.example.ecom.cluster.InvalidationBus;
+import com.example.ecom.dto.CursorPageResponse;
+import com.example.ecom.dto.OrderItemRequest;
+import com.example.ecom.dto.OrderItemResponse;
+import com.example.ecom.dto.OrderPageResponse;
+import com.example.ecom.dto.OrderRequest;
+import com.example.ecom.dto.OrderResponse;
+import com.example.ecom.dto.OrderStatusResponse;
+import com.example.ecom.dto.OrderUpdateRequest;
+import com.example.ecom.inventory.InventoryService;
+import com.example.ecom.model.Order;
+import com.example.ecom.model.OrderItem;
+import com.example.ecom.model.Product;
+import com.example.ecom.repository.OrderRepository;
+import com.example.ecom.repository.ProductRepo;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@Service
+public class OrderService {
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
+    private static final int ORDER_NUMBER_ATTEMPTS = 3;
+
+    private static final int EXPORT_ITEM_CHUNK = 500;
+
+    private static final String[] EXPORT_CSV_HEADER = {"id", "orderNumber", "userId", "totalPrice", "status",
+            "deliveryDate", "paymentMethod", "createdAt", "addressJson"};
+
+    private static final String CANCELLED = "Cancelled";
+
+    // Orders that have left the warehouse; their units are no longer in stock to release
+    private static final Set<String> NOT_CANCELLABLE = new HashSet<>(Arrays.asList("Shipped", "Delivered"));
+
+    private static final Set<String> HISTORY_SORTS =
+            new HashSet<>(Arrays.asList("id", "createdAt", "totalPrice", "status"));
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderReplayCache replayCache;
+
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+
+    @Autowired
+    private OrderLookupCache lookupCache;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Keyed placements still running; a concurrent retry waits for the first attempt's outcome
+    private final ConcurrentHashMap<String, CompletableFuture<Order>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    private CheckoutPermits checkoutPermits;
+
+    @Autowired
+    private OrderPipeline orderPipeline;
+
+    @Autowired
+    private StockHolds stockHolds;
+
+    @PostConstruct
+    void subscribeToInvalidations() {
+        invalidationBus.subscribe(InvalidationBus.ORDER, lookupCache::evict);
+    }
+
+    /**
+     * Places an order priced from the catalog, not from the client. Products are
+     * loaded in one query. In database mode the stock is reserved by guarded UPDATEs
+     * in the transaction that saves the order, so both commit or neither does; the
+     * in-memory inventory reserves before the transaction opens and gets the units
+     * back if the order cannot be saved.
+     */
+    public Order placeOrder(Long userId, OrderRequest request) {
+        return place(userId, request, null);
+    }
+
+    /**
+     * Places an order at most once per user and {@code Idempotency-Key}: a retry
+     * with a key that already placed an order gets that order back unchanged.
+     * A failed attempt is not remembered and can be retried with the same key.
+     */
+    public Order placeOrder(Long userId, String idempotencyKey, OrderRequest request) {
+        if (idempotencyKey == null) {
+            return place(userId, request, null);
+        }
+        validateIdempotencyKey(idempotencyKey);
+
+        Order replay = replayCache.get(userId, idempotencyKey);
+        if (replay != null) {
+            return replay;
+        }
+
+        String slot = OrderReplayCache.slot(userId, idempotencyKey);
+        CompletableFuture<Order> attempt = new CompletableFuture<>();
+        CompletableFuture<Order> running = inFlight.putIfAbsent(slot, attempt);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            Order order = orderRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey).orElse(null);
+            if (order == null) {
+                try {
+                    order = place(userId, request, idempotencyKey);
+                } catch (DataIntegrityViolationException e) {
+                    if (OrderNumberGenerator.isDuplicate(e)) {
+                        throw e;
+                    }
+                    // Placed concurrently elsewhere (another instance, or before a restart)
+                    order = orderRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+                            .orElseThrow(() -> e);
+                }
+            }
+            replayCache.put(userId, idempotencyKey, order);
+            attempt.complete(order);
+            return order;
+        } catch (RuntimeException e) {
+            attempt.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(slot, attempt);
+        }
+    }
+
+    /**
+     * Accepts an order for asynchronous placement: it is validated, priced and its
+     * stock reserved now, then queued for the order writers. Follow it with
+     * {@link #getOrderStatus}. Throws {@link OrderQueueFullException} when the queue is full.
+     */
+    public OrderStatusResponse submitOrder(Long userId, String idempotencyKey, OrderRequest request) {
+        String trackingId = orderNumberGenerator.nextOrderNumber();
+        if (idempotencyKey == null) {
+            return enqueue(userId, request, null, trackingId);
+        }
+        validateIdempotencyKey(idempotencyKey);
+
+        // A retry while the first attempt is still queued gets the first attempt's tracking id
+        String pending = orderPipeline.claim(userId, idempotencyKey, trackingId);
+        if (pending != null) {
+            OrderStatusResponse status = orderPipeline.status(userId, pending);
+            return status != null ? status : new OrderStatusResponse(pending, OrderStatusResponse.QUEUED, null, null);
+        }
+
+        boolean queued = false;
+        try {
+            // Looked up after claiming: a written order is cached before its claim is dropped
+            Order replay = replayCache.get(userId, idempotencyKey);
+            if (replay == null) {
+                replay = orderRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey).orElse(null);
+            }
+            if (replay != null) {
+                return new OrderStatusResponse(replay.getOrderNumber(), OrderStatusResponse.PLACED, replay.getId(), null);
+            }
+            OrderStatusResponse status = enqueue(userId, request, idempotencyKey, trackingId);
+            queued = true;
+            return status;
+        } finally {
+            if (!queued) {
+                orderPipeline.unclaim(userId, idempotencyKey, trackingId);
+            }
+        }
+    }
+
+    /**
+     * Progress of an order accepted by {@link #submitOrder}, by its tracking id (the order number)
+     */
+    public OrderStatusResponse getOrderStatus(Long userId, String trackingId) {
+        OrderStatusResponse status = orderPipeline.status(userId, trackingId);
+        if (status != null) {
+            return status;
+        }
+        Order order = orderRepository.findByUserIdAndOrderNumber(userId, trackingId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        return new OrderStatusResponse(order.getOrderNumber(), OrderStatusResponse.PLACED, order.getId(), null);
+    }
+
+    private OrderStatusResponse enqueue(Long userId, OrderRequest request, String idempotencyKey, String trackingId) {
+        // Written later on an order writer: the reservation commits now with a durable hold
+        // on its units, which the writer takes with the order or the sweep gives back
+        Order order;
+        if (inventoryService.joinsCallerTransaction()) {
+            order = transactionTemplate.execute(status -> {
+                Order prepared = prepareOrder(userId, request, idempotencyKey, trackingId);
+                stockHolds.hold(prepared);
+                return prepared;
+            });
+        } else {
+            order = prepareOrder(userId, request, idempotencyKey, trackingId);
+            try {
+                transactionTemplate.executeWithoutResult(status -> stockHolds.hold(order));
+            } catch (RuntimeException e) {
+                inventoryService.release(quantities(order));
+                throw e;
+            }
+        }
+
+        OrderStatusResponse queued = orderPipeline.submit(order);
+        if (queued == null) {
+            stockHolds.release(order);
+            throw new OrderQueueFullException();
+        }
+        return queued;
+    }
+
+    private Order place(Long userId, OrderRequest request, String idempotencyKey) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return place(userId, request, idempotencyKey, orderNumberGenerator.nextOrderNumber());
+            } catch (DataIntegrityViolationException e) {
+                // Another instance issued the same number; the attempt rolled back, so take a new one
+                if (attempt >= ORDER_NUMBER_ATTEMPTS || !OrderNumberGenerator.isDuplicate(e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Order place(Long userId, OrderRequest request, String idempotencyKey, String orderNumber) {
+        if (inventoryService.joinsCallerTransaction()) {
+            // Reservation and order row commit together, or neither does
+            checkoutPermits.acquire();
+            try {
+                return transactionTemplate.execute(status ->
+                        orderRepository.save(prepareOrder(userId, request, idempotencyKey, orderNumber)));
+            } finally {
+                checkoutPermits.release();
+            }
+        }
+
+        Order order = prepareOrder(userId, request, idempotencyKey, orderNumber);
+        boolean placed = false;
+        checkoutPermits.acquire();
+        try {
+            Order saved = transactionTemplate.execute(status -> orderRepository.save(order));
+            placed = true;
+            return saved;
+        } finally {
+            checkoutPermits.release();
+            if (!placed) {
+                inventoryService.release(quantities(order));
+            }
+        }
+    }
+
+    /**
+     * Validates the request, loads its products in one query, reserves the stock
+     * and returns the priced, unsaved order
+     */
+    private Order prepareOrder(Long userId, OrderRequest request, String idempotencyKey, String orderNumber) {
+        Map<Integer, Integer> quantities = quantities(request);
+
+        Map<Integer, Product> products = new HashMap<>();
+        for (Product product : productRepo.findAllById(quantities.keySet())) {
+            products.put(product.getId(), product);
+        }
+        for (Integer productId : quantities.keySet()) {
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new IllegalArgumentException("Unknown product: " + productId);
+            }
+            if (!product.isProductAvailable()) {
+                throw new InsufficientStockException(productId, product.getName());
+            }
+        }
+
+        Integer shortProduct = inventoryService.tryReserve(quantities);
+        if (shortProduct != null) {
+            throw new InsufficientStockException(shortProduct, products.get(shortProduct).getName());
+        }
+        return buildOrder(userId, idempotencyKey, orderNumber, request, quantities, products);
+    }
+
+    private static void validateIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1-" + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+    }
+
+    /**
+     * productId -> quantity, merged per product
+     */
+    private static Map<Integer, Integer> quantities(OrderRequest request) {
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        if (request.getItems() != null) {
+            for (OrderItemRequest itemReq : request.getItems()) {
+                if (itemReq.getProductId() == null || itemReq.getQuantity() == null || itemReq.getQuantity() <= 0) {
+                    throw new IllegalArgumentException("Each item needs a productId and a positive quantity");
+                }
+                if (itemReq.getProductId() <= 0 || itemReq.getProductId() > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Unknown product: " + itemReq.getProductId());
+                }
+                quantities.merge(itemReq.getProductId().intValue(), itemReq.getQuantity(), Integer::sum);
+            }
+        }
+        if (quantities.isEmpty()) {
+            throw new IllegalArgumentException("Order has no items");
+        }
+        return quantities;
+    }
+
+    private static Map<Integer, Integer> quantities(Order order) {
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            quantities.merge(item.getProductId().intValue(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private Order buildOrder(Long userId, String idempotencyKey, String orderNumber, OrderRequest request,
+                             Map<Integer, Integer> quantities, Map<Integer, Product> products) {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setIdempotencyKey(idempotencyKey);
+        order.setPaymentMethod(request.getPaymentMethod());
+        order.setAddressJson(request.getAddressJson());
+        order.setOrderNumber(orderNumber);
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+            Product product = products.get(line.getKey());
+            int quantity = line.getValue();
+
+            OrderItem item = new OrderItem();
+            item.setProductId(product.getId().longValue());
+            item.setName(product.getName());
+            item.setPrice(product.getPrice());
+            item.setQuantity(quantity);
+            order.addItem(item);
+
+            total = total.add(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
+        }
+        order.setTotalPrice(total);
+        return order;
+    }
+
+    /**
+     * Cancels a customer's own order; see {@link #updateOrder(Long, OrderUpdateRequest)}
+     */
+    public Order cancelOrder(Long userId, Long orderId) {
+        OrderUpdateRequest request = new OrderUpdateRequest();
+        request.setStatus(CANCELLED);
+        return updateOrder(() -> orderRepository.findByIdAndUserId(orderId, userId), request);
+    }
+
+    /**
+     * Changes an order's status and/or delivery date. Moving into Cancelled puts the
+     * units back in stock, in the same transaction when the inventory joins it and
+     * after commit otherwise; the status is compare-and-set on the row, so of two
+     * concurrent cancellations only one releases. Cancelled orders cannot be reopened,
+     * and shipped or delivered ones cannot be cancelled. An update that changes
+     * nothing is not saved or broadcast.
+     */
+    public Order updateOrder(Long orderId, OrderUpdateRequest request) {
+        return updateOrder(() -> orderRepository.findWithItemsById(orderId), request);
+    }
+
+    private Order updateOrder(Supplier<Optional<Order>> lookup, OrderUpdateRequest request) {
+        // Units to put back after commit, when the inventory cannot join the transaction
+        Map<Integer, Integer> released = new HashMap<>();
+        List<String> evict = new ArrayList<>(1);
+        Order updated = transactionTemplate.execute(status -> {
+            Order order = lookup.get().orElseThrow(() -> new RuntimeException("Order not found"));
+
+            boolean changed = false;
+            String from = order.getStatus();
+            String to = request.getStatus();
+            if (to != null && !to.equals(from)) {
+                checkTransition(from, to);
+                if (orderRepository.updateStatus(order.getId(), from, to) == 0) {
+                    throw new OrderStatusException("Order was changed meanwhile, please retry");
+                }
+                order.setStatus(to);
+                changed = true;
+                if (CANCELLED.equalsIgnoreCase(to)) {
+                    Map<Integer, Integer> units = new HashMap<>();
+                    for (OrderItem item : order.getItems()) {
+                        if (item.getProductId() != null) {
+                            units.merge(item.getProductId().intValue(), item.getQuantity(), Integer::sum);
+                        }
+                    }
+                    if (inventoryService.joinsCallerTransaction()) {
+                        inventoryService.release(units);
+                    } else {
+                        released.putAll(units);
+                    }
+                }
+            }
+
+            if (request.getDeliveryDate() != null && !request.getDeliveryDate().equals(order.getDeliveryDate())) {
+                order.setDeliveryDate(request.getDeliveryDate());
+                changed = true;
+            }
+
+            if (!changed) {
+                return order;
+            }
+            invalidationBus.publish(InvalidationBus.ORDER, order.getOrderNumber());
+            Order saved = orderRepository.save(order);
+            evict.add(saved.getOrderNumber());
+            return saved;
+        });
+        for (String orderNumber : evict) {
+            lookupCache.evict(orderNumber);
+        }
+        if (!released.isEmpty()) {
+            inventoryService.release(released);
+        }
+        return updated;
+    }
+
+    private static void checkTransition(String from, String to) {
+        if (CANCELLED.equalsIgnoreCase(from)) {
+            throw new OrderStatusException(CANCELLED.equalsIgnoreCase(to)
+                    ? "Order is already cancelled"
+                    : "A cancelled order cannot be reopened");
+        }
+        if (CANCELLED.equalsIgnoreCase(to) && from != null && NOT_CANCELLABLE.contains(from)) {
+            throw new OrderStatusException("Order is already " + from.toLowerCase() + " and can no longer be cancelled");
+        }
+    }
+
+    /**
+     * An order with its items by the number the customer sees, through the lookup cache
+     */
+    @Transactional(readOnly = true)
+    public OrderResponse getOrderByNumber(String orderNumber) {
+        OrderResponse order = lookupCache.get(orderNumber);
+        if (order != null) {
+            return order;
+        }
+        order = orderRepository.findHistoryByOrderNumber(orderNumber)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        attachItems(index(Collections.singletonList(order)),
+                orderRepository.findHistoryItemsByOrderIds(Collections.singleton(order.getId())));
+        lookupCache.put(order);
+        return order;
+    }
+
+    /**
+     * Like {@link #getOrderByNumber(String)}, but only finds orders of this user
+     */
+    @Transactional(readOnly = true)
+    public OrderResponse getOrderByNumber(Long userId, String orderNumber) {
+        OrderResponse order = getOrderByNumber(orderNumber);
+        if (!order.getUserId().equals(userId)) {
+            throw new RuntimeException("Order not found");
+        }
+        return order;
+    }
+
+    /**
+     * All orders of a user with their items, in two queries regardless of order count
+     */
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getOrderHistory(Long userId) {
+        List<OrderResponse> orders = orderRepository.findHistoryByUserId(userId);
+        if (!orders.isEmpty()) {
+            attachItems(index(orders), orderRepository.findHistoryItemsByUserId(userId));
+        }
+        return orders;
+    }
+
+    /**
+     * One page of a user's orders, optionally limited to those placed between
+     * {@code from} and {@code to} (inclusive days); items are loaded with one IN query
+     */
+    @Transactional(readOnly = true)
+    public OrderPageResponse getOrderHistoryPage(Long userId, LocalDate from, LocalDate to, Pageable pageable) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        for (Sort.Order order : pageable.getSort()) {
+            if (!HISTORY_SORTS.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Unsupported sort: " + order.getProperty());
+            }
+        }
+
+        Page<OrderResponse> page = orderRepository.findHistoryPage(
+                userId, startOfDay(from), to == null ? null : startOfDay(to.plusDays(1)), pageable);
+
+        List<OrderResponse> orders = page.getContent();
+        if (!orders.isEmpty()) {
+            Map<Long, OrderResponse> byId = index(orders);
+            attachItems(byId, orderRepository.findHistoryItemsByOrderIds(byId.keySet()));
+        }
+        return new OrderPageResponse(orders, page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages(), page.hasNext());
+    }
+
+    /**
+     * All orders of all users, {@code size} at a time by ascending id, starting after {@code after}
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<OrderResponse> getOrdersPage(Long after, int size) {
+        Pageable limit = CursorPages.limit(size);
+        CursorPageResponse<OrderResponse> page = CursorPages.of(
+                orderRepository.findHistoryAfter(CursorPages.after(after), limit), limit, OrderResponse::getId);
+        if (!page.getContent().isEmpty()) {
+            Map<Long, OrderResponse> byId = index(page.getContent());
+            attachItems(byId, orderRepository.findHistoryItemsByOrderIds(byId.keySet()));
+        }
+        return page;
+    }
+
+    /**
+     * Writes every order to {@code out} as it is read: NDJSON rows carry their items,
+     * loaded per chunk of orders, CSV rows are the order columns only
+     */
+    @Transactional(readOnly = true)
+    public void exportOrders(ExportFormat format, OutputStream out) throws IOException {
+        ExportWriter<OrderResponse> writer = new ExportWriter<>(format, out, jsonMapper, EXPORT_CSV_HEADER,
+                order -> new Object[]{order.getId(), order.getOrderNumber(), order.getUserId(),
+                        order.getTotalPrice(), order.getStatus(), order.getDeliveryDate(),
+                        order.getPaymentMethod(), order.getCreatedAt(), order.getAddressJson()});
+
+        try (Stream<OrderResponse> orders = orderRepository.streamHistory()) {
+            Map<Long, OrderResponse> chunk = new LinkedHashMap<>();
+            Iterator<OrderResponse> it = orders.iterator();
+            while (it.hasNext()) {
+                OrderResponse order = it.next();
+                if (format == ExportFormat.CSV) {
+                    writer.write(order);
+                    continue;
+                }
+                chunk.put(order.getId(), order);
+                if (chunk.size() == EXPORT_ITEM_CHUNK || !it.hasNext()) {
+                    attachItems(chunk, orderRepository.findHistoryItemsByOrderIds(chunk.keySet()));
+                    for (OrderResponse row : chunk.values()) {
+                        writer.write(row);
+                    }
+                    chunk.clear();
+                }
+            }
+        }
+        writer.finish();
+    }
+
+    private static void attachItems(Map<Long, OrderResponse> byId, List<OrderItemResponse> items) {
+        for (OrderItemResponse item : items) {
+            OrderResponse order = byId.get(item.getOrderId());
+            if (order != null) {
+                order.getItems().add(item);
+            }
+        }
+    }
+
+    private static Map<Long, OrderResponse> index(List<OrderResponse> orders) {
+        Map<Long, OrderResponse> byId = new HashMap<>(orders.size() * 2);
+        for (OrderResponse order : orders) {
+            byId.put(order.getId(), order);
+        }
+        return byId;
+    }
+
+    private static Date startOfDay(LocalDate day) {
+        return day == null ? null : Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
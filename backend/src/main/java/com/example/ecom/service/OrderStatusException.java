@@ -0,0 +1,12 @@
+package com.example.ecom.service;
+
+/**
+ * Thrown when an order cannot move to the requested status, e.g. cancelling an
+ * order that has already shipped.
+ */
+public class OrderStatusException extends RuntimeException {
+
+    public OrderStatusException(String message) {
+        super(message);
+    }
+}
@@ -1,38 +1,170 @@
 package com.example.ecom.service;
 
 
+import com.example.ecom.cluster.InvalidationBus;
+import com.example.ecom.dto.ProductDTO;
+import com.example.ecom.dto.ProductFilter;
+import com.example.ecom.dto.ProductPageResponse;
+import com.example.ecom.inventory.InventoryService;
 import com.example.ecom.model.Product;
+import com.example.ecom.model.ProductImage;
+import com.example.ecom.repository.ProductImageRepository;
 import com.example.ecom.repository.ProductRepo;
+import com.example.ecom.search.ProductSearchIndex;
+import com.example.ecom.search.ProductSuggestService;
+import com.example.ecom.storage.ImageReleaser;
+import com.example.ecom.storage.ImageStore;
+import com.example.ecom.storage.ImageVariant;
+import com.example.ecom.storage.ImageVariantStore;
+import com.example.ecom.storage.StoredImage;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class ProductService {
 
+    private static final int SEARCH_LIMIT = 100;
+
+    private static final Set<String> CATALOG_SORTS =
+            new HashSet<>(Arrays.asList("id", "name", "brand", "category", "price"));
+
     @Autowired
     private ProductRepo repo;
 
+    @Autowired
+    private ProductImageRepository imageRepo;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageVariantStore variantStore;
+
+    @Autowired
+    private ImageReleaser imageReleaser;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductSuggestService suggestService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @PostConstruct
+    void subscribeToInvalidations() {
+        invalidationBus.subscribe(InvalidationBus.PRODUCT, key -> changedElsewhere(Integer.parseInt(key)));
+    }
+
+    /**
+     * Load the search index once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildSearchIndex() {
+        searchIndex.rebuild(repo::findAll);
+    }
+
+    /**
+     * Every product, from the catalog cache, with current stock
+     */
     public List<Product> getAllProducts() {
-        return repo.findAll();
+        return withCurrentStock(catalogCache.getAllProducts(repo::findAll));
+    }
+
+    /**
+     * One page of the catalog as listing DTOs. With {@code after} set (start at 0)
+     * it pages by id without counting, which stays flat however deep the client goes.
+     */
+    public ProductPageResponse getCatalog(ProductFilter filter, Integer after, Pageable pageable) {
+        if (after != null) {
+            Slice<ProductDTO> slice = repo.findCatalogAfter(
+                    filter.getCategory(), filter.getBrand(), filter.getMinPrice(),
+                    filter.getMaxPrice(), filter.getAvailable(), after,
+                    PageRequest.of(0, pageable.getPageSize()));
+
+            List<ProductDTO> content = slice.getContent();
+            Integer nextCursor = slice.hasNext() ? content.get(content.size() - 1).getId() : null;
+            return new ProductPageResponse(content, 0, pageable.getPageSize(),
+                    null, null, slice.hasNext(), nextCursor);
+        }
+
+        for (Sort.Order order : pageable.getSort()) {
+            if (!CATALOG_SORTS.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Unsupported sort: " + order.getProperty());
+            }
+        }
+
+        Page<ProductDTO> page = repo.findCatalogPage(
+                filter.getCategory(), filter.getBrand(), filter.getMinPrice(),
+                filter.getMaxPrice(), filter.getAvailable(), pageable);
+        return new ProductPageResponse(page.getContent(), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages(), page.hasNext(), null);
     }
 
+    /**
+     * A product from the catalog cache, with current stock, or null if there is none
+     */
     public Product getProduct(int id) {
-        return repo.findById(id).orElse(null);
+        Product product = catalogCache.getProduct(id, key -> repo.findById(key).orElse(null));
+        return product == null ? null : withCurrentStock(Collections.singletonList(product)).get(0);
     }
 
+    @Transactional
     public Product addProduct(Product product, MultipartFile imageFile) throws IOException {
         product.setImageName(imageFile.getOriginalFilename());
         product.setImageType(imageFile.getContentType());
-        product.setImageData(imageFile.getBytes());
 
-        return repo.save(product);
+        Product saved = repo.save(product);
+        saveImage(saved.getId(), imageFile);
+        invalidationBus.publish(InvalidationBus.PRODUCT, saved.getId());
+        afterCommit(() -> {
+            catalogCache.invalidate(saved.getId());
+            searchIndex.put(saved);
+            suggestService.requestRebuild();
+        });
+        return saved;
     }
 
-    public Product updateProduct(int id, Product updatedProduct, MultipartFile imageFile)
+    /**
+     * Stock changes only when {@code loadedStock} (the stock the admin's form was
+     * loaded with) is sent and differs from the submitted value; the difference
+     * is then applied to the live stock, so units sold meanwhile are not undone.
+     * The delta commits with the edit in database mode; the in-memory inventory
+     * applies it once the edit has committed.
+     */
+    @Transactional
+    public Product updateProduct(int id, Product updatedProduct, Integer loadedStock, MultipartFile imageFile)
             throws IOException {
 
         Product existing = repo.findById(id).orElse(null);
@@ -47,25 +179,179 @@ public class ProductService {
         existing.setCategory(updatedProduct.getCategory());
         existing.setReleaseDate(updatedProduct.getReleaseDate());
         existing.setProductAvailable(updatedProduct.isProductAvailable());
-        existing.setStockQuantity(updatedProduct.getStockQuantity());
+        int stockDelta = updatedProduct.getStockQuantity() != null && loadedStock != null
+                ? updatedProduct.getStockQuantity() - loadedStock : 0;
 
         // ✅ IMAGE UPDATE ONLY IF NEW IMAGE IS SENT
         if (imageFile != null && !imageFile.isEmpty()) {
-            existing.setImageData(imageFile.getBytes());
             existing.setImageName(imageFile.getOriginalFilename());
             existing.setImageType(imageFile.getContentType());
+            saveImage(id, imageFile);
         }
 
-        return repo.save(existing);
+        Product saved = repo.save(existing);
+        // The stock column is owned by the inventory service; it commits with the edit when it can
+        boolean stockInTransaction = stockDelta != 0 && inventoryService.joinsCallerTransaction();
+        if (stockInTransaction) {
+            inventoryService.adjustStock(id, stockDelta);
+        }
+        invalidationBus.publish(InvalidationBus.PRODUCT, id);
+        afterCommit(() -> {
+            catalogCache.invalidate(id);
+            searchIndex.put(saved);
+            suggestService.requestRebuild();
+            if (stockDelta != 0 && !stockInTransaction) {
+                inventoryService.adjustStock(id, stockDelta);
+            }
+        });
+        return saved;
     }
 
 
+    @Transactional
     public void deleteProduct(int id) {
+        ProductImage image = imageRepo.findById(id).orElse(null);
         repo.deleteById(id);
+
+        if (image != null) {
+            imageRepo.delete(image);
+            imageReleaser.release(image.getContentHash());
+        }
+        invalidationBus.publish(InvalidationBus.PRODUCT, id);
+        afterCommit(() -> {
+            catalogCache.invalidate(id);
+            searchIndex.remove(id);
+            suggestService.requestRebuild();
+        });
     }
 
 
+    /**
+     * Another instance added, changed or deleted a product: refresh what this one holds of it
+     */
+    private void changedElsewhere(int id) {
+        catalogCache.invalidate(id);
+        Product product = repo.findById(id).orElse(null);
+        if (product != null) {
+            searchIndex.put(product);
+        } else {
+            searchIndex.remove(id);
+        }
+        suggestService.requestRebuild();
+    }
+
+    /**
+     * Best matches for a free-text query, with current stock; the index holds
+     * shared instances, so callers get copies
+     */
     public List<Product> searchProducts(String keyword) {
-        return repo.searchProducts(keyword);
+        // Still starting up: fall back to the database scan
+        List<Product> hits = searchIndex.isReady()
+                ? searchIndex.search(keyword, SEARCH_LIMIT)
+                : repo.searchProducts(keyword);
+        return withCurrentStock(hits);
+    }
+
+    // ==================== IMAGES ====================
+
+    /**
+     * Get image metadata for a product, or null if it has none
+     */
+    public ProductImage getProductImage(int productId) {
+        return imageRepo.findById(productId).orElse(null);
+    }
+
+    /**
+     * Open the stored bytes behind an image for streaming
+     */
+    public Resource loadImage(ProductImage image) {
+        return imageStore.load(image.getContentHash());
+    }
+
+    /**
+     * A resized copy of an image for a requested width, or null to serve the original
+     */
+    public ImageVariant loadImageVariant(ProductImage image, int width) {
+        return variantStore.get(image.getContentHash(), width);
+    }
+
+    /**
+     * Whether the original image is the final answer for this width, rather than
+     * a stand-in until its thumbnail is rendered
+     */
+    public boolean hasNoImageVariant(ProductImage image, int width) {
+        return variantStore.hasNoVariant(image.getContentHash(), width);
+    }
+
+    /**
+     * Store image bytes and point the product's image metadata at them;
+     * thumbnails are rendered in the background once it commits
+     */
+    @Transactional
+    public ProductImage saveImage(int productId, String name, String type, InputStream data)
+            throws IOException {
+        StoredImage stored = imageReleaser.store(data);
+
+        ProductImage image = imageRepo.findById(productId).orElse(null);
+        String previousHash = null;
+        if (image == null) {
+            image = new ProductImage();
+            image.setProductId(productId);
+        } else {
+            previousHash = image.getContentHash();
+        }
+
+        image.setImageName(name);
+        image.setImageType(type);
+        image.setContentHash(stored.getKey());
+        image.setSize(stored.getSize());
+        image.setUpdatedAt(Instant.now());
+        imageRepo.save(image);
+
+        if (previousHash != null && !previousHash.equals(stored.getKey())) {
+            imageReleaser.release(previousHash);
+        }
+        afterCommit(() -> variantStore.generate(stored.getKey()));
+        return image;
+    }
+
+    private void saveImage(int productId, MultipartFile imageFile) throws IOException {
+        try (InputStream in = imageFile.getInputStream()) {
+            saveImage(productId, imageFile.getOriginalFilename(), imageFile.getContentType(), in);
+        }
+    }
+
+    // Cached rows are shared; stock moves with every order, so callers get copies with the live count
+    private List<Product> withCurrentStock(List<Product> cached) {
+        List<Integer> ids = new ArrayList<>(cached.size());
+        for (Product product : cached) {
+            ids.add(product.getId());
+        }
+        Map<Integer, Integer> stock = inventoryService.currentStock(ids);
+
+        List<Product> products = new ArrayList<>(cached.size());
+        for (Product product : cached) {
+            products.add(new Product(product.getId(), product.getName(), product.getDescription(),
+                    product.getBrand(), product.getPrice(), product.getCategory(), product.getReleaseDate(),
+                    product.isProductAvailable(), stock.getOrDefault(product.getId(), product.getStockQuantity()),
+                    product.getImageName(), product.getImageType()));
+        }
+        return products;
+    }
+
+    /**
+     * Run an in-memory update only once the current transaction commits
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,128 @@
+package com.example.ecom.service;
+
+import com.example.ecom.inventory.InventoryService;
+import com.example.ecom.model.Order;
+import com.example.ecom.model.OrderItem;
+import com.example.ecom.model.StockHold;
+import com.example.ecom.repository.StockHoldRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Durable record of stock reserved for queued orders ({@link StockHold}), so
+ * units taken for an order that never gets written are given back even when
+ * the instance holding the queue dies.
+ *
+ * Whoever deletes a hold owns its units: the order writer (the order keeps
+ * them), a failed write or a full queue (they go back), or the sweep of holds
+ * older than {@code ecom.orders.async.hold-expiry-seconds} (they go back). The
+ * delete is conditional, so the units move exactly once however these race.
+ */
+@Component
+public class StockHolds {
+
+    private static final Logger log = LoggerFactory.getLogger(StockHolds.class);
+
+    private final StockHoldRepository holdRepository;
+    private final InventoryService inventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final long expiryMillis;
+
+    public StockHolds(StockHoldRepository holdRepository,
+                      InventoryService inventoryService,
+                      TransactionTemplate transactionTemplate,
+                      @Value("${ecom.orders.async.hold-expiry-seconds:300}") long expirySeconds) {
+        this.holdRepository = holdRepository;
+        this.inventoryService = inventoryService;
+        this.transactionTemplate = transactionTemplate;
+        this.expiryMillis = expirySeconds * 1000;
+    }
+
+    /**
+     * Records the reservation of a priced order; call in the reservation's transaction when there is one
+     */
+    public void hold(Order order) {
+        StringBuilder lines = new StringBuilder();
+        for (Map.Entry<Integer, Integer> line : quantities(order).entrySet()) {
+            if (lines.length() > 0) {
+                lines.append(',');
+            }
+            lines.append(line.getKey()).append(':').append(line.getValue());
+        }
+        StockHold hold = new StockHold();
+        hold.setOrderNumber(order.getOrderNumber());
+        hold.setLines(lines.toString());
+        hold.setCreatedAt(Instant.now());
+        holdRepository.save(hold);
+    }
+
+    /**
+     * Takes the holds of orders being written, in the writing transaction; returns
+     * how many were still there (the rest were swept and their units given back)
+     */
+    public int take(Collection<String> orderNumbers) {
+        return holdRepository.deleteByOrderNumbers(orderNumbers);
+    }
+
+    /**
+     * Gives an order's units back unless its hold was already taken
+     */
+    public void release(Order order) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (take(Collections.singleton(order.getOrderNumber())) == 1) {
+                inventoryService.release(quantities(order));
+            }
+        });
+    }
+
+    /**
+     * Gives back the units of holds older than the expiry, whose orders were never written
+     */
+    public int sweepExpired() {
+        List<StockHold> expired = holdRepository.findTop100ByCreatedAtBeforeOrderByCreatedAtAsc(
+                Instant.now().minusMillis(expiryMillis));
+        int swept = 0;
+        for (StockHold hold : expired) {
+            Boolean released = transactionTemplate.execute(status -> {
+                if (take(Collections.singleton(hold.getOrderNumber())) == 0) {
+                    return false;
+                }
+                inventoryService.release(parse(hold.getLines()));
+                return true;
+            });
+            if (Boolean.TRUE.equals(released)) {
+                log.warn("Released stock held by unwritten order {}: {}", hold.getOrderNumber(), hold.getLines());
+                swept++;
+            }
+        }
+        return swept;
+    }
+
+    static Map<Integer, Integer> quantities(Order order) {
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            quantities.merge(item.getProductId().intValue(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private static Map<Integer, Integer> parse(String lines) {
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for (String line : lines.split(",")) {
+            int colon = line.indexOf(':');
+            quantities.merge(Integer.parseInt(line.substring(0, colon)),
+                    Integer.parseInt(line.substring(colon + 1)), Integer::sum);
+        }
+        return quantities;
+    }
+}
@@ -1,22 +1,36 @@
 package com.example.ecom.service;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import com.example.ecom.model.Order;
-import com.example.ecom.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
 
+import com.example.ecom.cluster.InvalidationBus;
 import com.example.ecom.dto.AddressRequest;
 import com.example.ecom.dto.AddressResponse;
 import com.example.ecom.dto.AdminUserListResponse;
+import com.example.ecom.dto.CursorPageResponse;
 import com.example.ecom.dto.LoginResponse;
 import com.example.ecom.dto.PaymentMethodRequest;
 import com.example.ecom.dto.PaymentMethodResponse;
 import com.example.ecom.dto.RegisterRequest;
 import com.example.ecom.dto.UpdateUserRequest;
+import com.example.ecom.dto.UserCredentials;
 import com.example.ecom.dto.UserProfileResponse;
 import com.example.ecom.model.Address;
 import com.example.ecom.model.PaymentMethod;
@@ -24,7 +38,12 @@ import com.example.ecom.model.User;
 import com.example.ecom.repository.AddressRepository;
 import com.example.ecom.repository.PaymentMethodRepository;
 import com.example.ecom.repository.UserRepository;
-import com.example.ecom.security.JwtUtil;
+import com.example.ecom.security.JwtService;
+import com.example.ecom.security.PasswordHasher;
+import com.example.ecom.security.TokenCache;
+import com.example.ecom.storage.ImageReleaser;
+import com.example.ecom.storage.ImageStore;
+import com.example.ecom.storage.StoredImage;
 
 @Service
 public class UserService {
@@ -32,8 +51,6 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
-    @Autowired
-    private OrderRepository orderRepository;
     @Autowired
     private AddressRepository addressRepository;
 
@@ -41,17 +58,44 @@ public class UserService {
     private PaymentMethodRepository paymentMethodRepository;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private JwtService jwtService;
 
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private PasswordHasher passwordHasher;
 
-    public byte[] getUserProfilePhoto(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getProfilePhoto();
+    @Autowired
+    private TokenCache tokenCache;
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageReleaser imageReleaser;
+
+    // Photos are served with their upload type only if it is one of these, else as JPEG
+    private static final Set<String> PHOTO_TYPES = new HashSet<>(Arrays.asList(
+            MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_GIF_VALUE, "image/webp"));
+
+    private static final String[] EXPORT_CSV_HEADER =
+            {"id", "username", "email", "fullName", "role", "enabled", "hasProfilePhoto"};
+
+    @PostConstruct
+    void subscribeToInvalidations() {
+        // A user's tokens were revoked on another instance: they must stop resolving here too
+        invalidationBus.subscribe(InvalidationBus.USER, tokenCache::evictUser);
     }
-    public byte[] getUserPhoto(Long userId) {
-        return getUserProfilePhoto(userId);
+
+    /**
+     * Open a user's stored photo for streaming, or null if they have none
+     */
+    public Resource loadProfilePhoto(User user) {
+        return user.getPhotoHash() == null ? null : imageStore.load(user.getPhotoHash());
     }
 
 
@@ -84,7 +128,7 @@ public class UserService {
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
         user.setPhoneNumber(request.getPhoneNumber());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHasher.encode(request.getPassword()));
         user.setRole("ROLE_USER");
         user.setFullName(request.getUsername());
 
@@ -96,41 +140,49 @@ public class UserService {
 
 // USER LIST
 
-public List<AdminUserListResponse> getAllUsersForAdmin() {
-
-    List<User> users = userRepository.findAll();
-
-    return users.stream()
-            .map(user -> new AdminUserListResponse(
-                    user.getId(),
-                    user.getUsername(),
-                    user.getEmail(),
-                    user.getFullName(),
-                    user.getRole(),
-                    true, // or user.isEnabled() if you add the field
-                    user.getProfilePhoto() != null
-            ))
-              .collect(Collectors.toList());
-              
-}
+    /**
+     * Users for the admin list, {@code size} at a time by ascending id, starting after {@code after}
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<AdminUserListResponse> getUsersForAdmin(Long after, int size) {
+        Pageable limit = CursorPages.limit(size);
+        return CursorPages.of(userRepository.findAdminListAfter(CursorPages.after(after), limit),
+                limit, AdminUserListResponse::getId);
+    }
+
+    /**
+     * Writes every user of the admin list to {@code out} as it is read
+     */
+    @Transactional(readOnly = true)
+    public void exportUsersForAdmin(ExportFormat format, OutputStream out) throws IOException {
+        ExportWriter<AdminUserListResponse> writer = new ExportWriter<>(format, out, jsonMapper, EXPORT_CSV_HEADER,
+                user -> new Object[]{user.getId(), user.getUsername(), user.getEmail(), user.getFullName(),
+                        user.getRole(), user.isEnabled(), user.isHasProfilePhoto()});
+        try (Stream<AdminUserListResponse> users = userRepository.streamAdminList()) {
+            Iterator<AdminUserListResponse> it = users.iterator();
+            while (it.hasNext()) {
+                writer.write(it.next());
+            }
+        }
+        writer.finish();
+    }
 
     /**
      * Authenticate user and generate JWT token
      */
     public LoginResponse authenticateUser(String username, String password) {
-        // Find user by username, email or phone number
-        User user = userRepository.findByUsername(username)
-            .orElseGet(() -> userRepository.findByEmail(username)
-                .orElseGet(() -> userRepository.findByPhoneNumber(username)
-                    .orElseThrow(() -> new RuntimeException("User not found"))));
+        // Find user by username, email or phone number, reading only the auth columns
+        UserCredentials user = userRepository.findCredentials(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
 
         // Verify password
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordHasher.matches(password, user.getPassword())) {
             throw new RuntimeException("Invalid password");
         }
+        rehashIfOutdated(user, password);
 
         // Generate JWT token
-        String token = jwtUtil.generateToken(user.getUsername());
+        String token = jwtService.generateToken(user.getUsername());
 
         // Return login response with user details
         return new LoginResponse(
@@ -142,6 +194,26 @@ public List<AdminUserListResponse> getAllUsersForAdmin() {
         );
     }
 
+    /**
+     * Stops this user's cached tokens from resolving, here and on every other instance.
+     * Any change to a user's username, role, password or enabled state must call it;
+     * today the username edit in {@link #updateUserProfile} is the only such change.
+     */
+    private void revokeCachedTokens(String username) {
+        tokenCache.evictUser(username);
+        invalidationBus.publish(InvalidationBus.USER, username);
+    }
+
+    // Hashed with an older algorithm or cost: replace it, unless it changed meanwhile.
+    // The password itself is unchanged, so cached tokens stay valid.
+    private void rehashIfOutdated(UserCredentials user, String password) {
+        String previous = user.getPassword();
+        if (passwordHasher.upgradeEncoding(previous)) {
+            Long userId = user.getId();
+            passwordHasher.rehash(password, hash -> userRepository.updatePassword(userId, previous, hash));
+        }
+    }
+
     /**
      * Get user by username
      */
@@ -167,7 +239,8 @@ public List<AdminUserListResponse> getAllUsersForAdmin() {
     }
 
     /**
-     * Get user profile with photo as base64
+     * Get user profile; the photo is not included, only its hash as a version,
+     * and its bytes are served by the {@code /photo} endpoint
      */
     public UserProfileResponse getUserProfile(Long userId) {
 
@@ -183,7 +256,7 @@ public List<AdminUserListResponse> getAllUsersForAdmin() {
                 user.getEmail(),
                 user.getPhoneNumber(),
                 user.getDateOfBirth(),
-                null   // ❌ DO NOT send photo here
+                user.getPhotoHash()   // version only; the photo itself is served by /photo
         );
     }
 
@@ -203,6 +276,8 @@ public List<AdminUserListResponse> getAllUsersForAdmin() {
             throw new RuntimeException("Username already exists");
         }
 
+        String previousUsername = user.getUsername();
+
         user.setUsername(request.getUsername());
         user.setFullName(request.getFullName());
         user.setPhoneNumber(request.getPhoneNumber());
@@ -210,17 +285,31 @@ public List<AdminUserListResponse> getAllUsersForAdmin() {
 
         userRepository.save(user);
 
+        // Tokens carry the old username as subject
+        if (!previousUsername.equals(request.getUsername())) {
+            revokeCachedTokens(previousUsername);
+        }
+
         return getUserProfile(userId);
     }
 
     /**
      * Upload/Update profile photo
      */
-    public UserProfileResponse updateProfilePhoto(Long userId, byte[] photoData) {
+    @Transactional
+    public UserProfileResponse updateProfilePhoto(Long userId, String contentType, InputStream photoData)
+            throws IOException {
         User user = getUserById(userId);
-        user.setProfilePhoto(photoData);
+        StoredImage stored = imageReleaser.store(photoData);
+
+        String previousHash = user.getPhotoHash();
+        user.setPhotoHash(stored.getKey());
+        user.setPhotoType(PHOTO_TYPES.contains(contentType) ? contentType : MediaType.IMAGE_JPEG_VALUE);
         userRepository.save(user);
 
+        if (previousHash != null && !previousHash.equals(stored.getKey())) {
+            imageReleaser.release(previousHash);
+        }
         return getUserProfile(userId);
     }
 
@@ -501,10 +590,4 @@ public List<AdminUserListResponse> getAllUsersForAdmin() {
         );
     }
 
-
-
-    public List<Order> getOrdersByUserId(Long userId) {
-       return  orderRepository.findByUserId(userId);
-
-    }
 }
@@ -0,0 +1,112 @@
+package com.example.ecom.storage;
+
+import com.example.ecom.repository.ProductImageRepository;
+import com.example.ecom.repository.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores image bytes for a new reference, and drops them, with their thumbnails,
+ * once neither a product image nor a profile photo points at them any more.
+ *
+ * Bytes are shared by content hash, so whether they are still referenced is only
+ * known once the change that dropped a reference has committed: the check and the
+ * delete run then, and never for a change that rolls back. Bytes stored through
+ * {@link #store} are held until the storing transaction completes, so a concurrent
+ * release of the same hash cannot delete them before the new reference commits.
+ */
+@Component
+public class ImageReleaser {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final ProductImageRepository productImageRepository;
+    private final UserRepository userRepository;
+    private final ImageStore imageStore;
+    private final ImageVariantStore variantStore;
+
+    // contentHash -> transactions that stored it and have not completed; changed under the hash's stripe
+    private final Map<String, Integer> held = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public ImageReleaser(ProductImageRepository productImageRepository, UserRepository userRepository,
+                         ImageStore imageStore, ImageVariantStore variantStore) {
+        this.productImageRepository = productImageRepository;
+        this.userRepository = userRepository;
+        this.imageStore = imageStore;
+        this.variantStore = variantStore;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Stores {@code data} for a reference the current transaction is about to save;
+     * the bytes cannot be released until that transaction completes
+     */
+    public StoredImage store(InputStream data) throws IOException {
+        StoredImage stored = imageStore.store(data);
+        String contentHash = stored.getKey();
+        synchronized (lock(contentHash)) {
+            // A release may have deleted a file that already existed before the hold was taken
+            if (imageStore.load(contentHash) == null) {
+                throw new IOException("Image " + contentHash + " was removed while being stored; please retry");
+            }
+            held.merge(contentHash, 1, Integer::sum);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            unhold(contentHash);
+            return stored;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unhold(contentHash);
+            }
+        });
+        return stored;
+    }
+
+    /**
+     * The current transaction (if any) drops a reference to {@code contentHash}
+     */
+    public void release(String contentHash) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteIfUnreferenced(contentHash);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteIfUnreferenced(contentHash);
+            }
+        });
+    }
+
+    private void deleteIfUnreferenced(String contentHash) {
+        synchronized (lock(contentHash)) {
+            if (!held.containsKey(contentHash)
+                    && productImageRepository.countByContentHash(contentHash) == 0
+                    && userRepository.countByPhotoHash(contentHash) == 0) {
+                imageStore.delete(contentHash);
+                variantStore.delete(contentHash);
+            }
+        }
+    }
+
+    private void unhold(String contentHash) {
+        synchronized (lock(contentHash)) {
+            held.computeIfPresent(contentHash, (hash, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    private Object lock(String contentHash) {
+        return locks[(contentHash.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.ecom.storage;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Downscales images with the JDK's ImageIO. Large sources are decoded with
+ * subsampling, so memory follows the target size rather than the upload, then
+ * halved step by step for smooth results. Opaque images are written as JPEG,
+ * images with transparency as PNG.
+ */
+final class ImageResizer {
+
+    // Refuse sources whose header promises more pixels than this (decompression bombs)
+    static final long MAX_SOURCE_PIXELS = 100_000_000L;
+
+    private ImageResizer() {
+    }
+
+    /**
+     * Write a copy of the image in {@code source} scaled to {@code width} pixels wide.
+     * Returns the content type written, or null (nothing written) when the source
+     * is not a readable image, is too large, or is no wider than {@code width}.
+     */
+    static String resize(InputStream source, int width, float jpegQuality, OutputStream out) throws IOException {
+        ImageInputStream in = new MemoryCacheImageInputStream(source);
+        try {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if (sourceWidth <= width || (long) sourceWidth * sourceHeight > MAX_SOURCE_PIXELS) {
+                    return null;
+                }
+                int height = Math.max(1, (int) Math.round(sourceHeight * (double) width / sourceWidth));
+
+                // Decode at no less than twice the target width, then scale the rest of the way
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, sourceWidth / (width * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                boolean alpha = decoded.getColorModel().hasAlpha();
+                BufferedImage scaled = scale(decoded, width, height, alpha);
+                if (alpha) {
+                    write(scaled, "png", null, out);
+                    return "image/png";
+                }
+                write(scaled, "jpeg", jpegQuality, out);
+                return "image/jpeg";
+            } finally {
+                reader.dispose();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w != width || h != height);
+        return current;
+    }
+
+    private static void write(BufferedImage image, String format, Float quality, OutputStream out)
+            throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ImageOutputStream ios = new MemoryCacheImageOutputStream(out);
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (quality != null) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+            }
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+            ios.close();
+        }
+    }
+}
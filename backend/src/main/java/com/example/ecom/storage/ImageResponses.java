@@ -0,0 +1,64 @@
+package com.example.ecom.storage;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds image responses shared by the product and profile photo endpoints.
+ *
+ * Bodies are returned as a {@link Resource} so Spring MVC streams them and
+ * answers {@code Range} requests with 206. The strong ETag (content hash) and
+ * Last-Modified headers let Spring answer {@code If-None-Match} /
+ * {@code If-Modified-Since} with 304 before any bytes are read.
+ */
+public final class ImageResponses {
+
+    private static final CacheControl VERSIONED =
+            CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    // Unversioned URLs may change content, so revalidate every time (cheap 304)
+    private static final CacheControl UNVERSIONED = CacheControl.noCache().cachePublic();
+
+    private ImageResponses() {
+    }
+
+    /**
+     * Serve stored image bytes. {@code requestedVersion} is the {@code v} query
+     * parameter; when it matches the content hash the response is immutable.
+     */
+    public static ResponseEntity<Resource> ok(Resource body,
+                                              String contentType,
+                                              String contentHash,
+                                              Instant lastModified,
+                                              String requestedVersion) {
+        return ok(body, contentType, contentHash, contentHash, lastModified, requestedVersion);
+    }
+
+    /**
+     * Serve a variant (e.g. a thumbnail) of a stored image: {@code eTag} identifies
+     * the variant, while the version is still the source's {@code contentHash}
+     */
+    public static ResponseEntity<Resource> ok(Resource body,
+                                              String contentType,
+                                              String eTag,
+                                              String contentHash,
+                                              Instant lastModified,
+                                              String requestedVersion) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.valueOf(contentType))
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .eTag(eTag)
+                .cacheControl(contentHash.equals(requestedVersion) ? VERSIONED : UNVERSIONED);
+
+        if (lastModified != null) {
+            builder.lastModified(lastModified);
+        }
+        return builder.body(body);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.ecom.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Binary storage for image bytes, kept out of the database rows and off the heap.
+ * Images are content-addressed: the key returned by {@link #store} is the
+ * SHA-256 of the bytes, so identical uploads share one stored copy.
+ */
+public interface ImageStore {
+
+    /**
+     * Stream the given data into the store and return its key and size
+     */
+    StoredImage store(InputStream data) throws IOException;
+
+    /**
+     * Resolve a stored image for streaming, or null if the key is unknown
+     */
+    Resource load(String key);
+
+    /**
+     * Remove a stored image; returns false if nothing was removed
+     */
+    boolean delete(String key);
+}
@@ -0,0 +1,34 @@
+package com.example.ecom.storage;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * A resized copy of a stored image, as kept by {@link ImageVariantStore}
+ */
+public class ImageVariant {
+
+    private final Resource resource;
+    private final String contentType;
+    private final String key;
+
+    public ImageVariant(Resource resource, String contentType, String key) {
+        this.resource = resource;
+        this.contentType = contentType;
+        this.key = key;
+    }
+
+    public Resource getResource() {
+        return resource;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Source content hash and width, e.g. {@code <sha256>-w320}; unique per variant, so usable as its ETag
+     */
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.ecom.storage;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resized copies of stored images for list pages, one per configured width
+ * ({@code ecom.images.variant-widths}), kept on disk under
+ * {@code ecom.images.variants-dir} as {@code ab/<sha256>-w<width>.jpg|png}.
+ *
+ * Variants are keyed by the source's content hash, so they never go stale and
+ * identical uploads share them. {@link #generate} renders all widths in the
+ * background after an upload; {@link #get} renders a missing one on first use
+ * if a render slot is free, and otherwise answers with the original and queues
+ * the render, so request threads never wait for one. At most
+ * {@code ecom.images.variant-workers} images are decoded at once.
+ */
+@Component
+public class ImageVariantStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantStore.class);
+
+    private static final String[] EXTENSIONS = {".jpg", ".png"};
+
+    private final ImageStore imageStore;
+    private final Path root;
+    private final int[] widths;
+    private final float jpegQuality;
+    private final Semaphore renderPermits;
+    private final ExecutorService renderer;
+
+    // Renders running or queued, so each variant is rendered once
+    private final ConcurrentHashMap<String, CompletableFuture<ImageVariant>> inFlight = new ConcurrentHashMap<>();
+
+    // Variants that would not be smaller than the source, or whose source cannot be decoded
+    private final Set<String> originalOnly = ConcurrentHashMap.newKeySet();
+
+    public ImageVariantStore(ImageStore imageStore,
+                             @Value("${ecom.images.variants-dir:${ecom.images.dir:./data/images}/variants}") String root,
+                             @Value("${ecom.images.variant-widths:160,320,640}") int[] widths,
+                             @Value("${ecom.images.jpeg-quality:0.8}") float jpegQuality,
+                             @Value("${ecom.images.variant-workers:2}") int workers) throws IOException {
+        this.imageStore = imageStore;
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.widths = widths.clone();
+        Arrays.sort(this.widths);
+        this.jpegQuality = jpegQuality;
+        this.renderPermits = new Semaphore(workers);
+
+        AtomicInteger threads = new AtomicInteger();
+        this.renderer = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "image-variants-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Files.createDirectories(this.root);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderer.shutdownNow();
+    }
+
+    /**
+     * The variant of a stored image for a requested width, rounded up to the next
+     * configured width. Renders it if missing and a render slot is free. Null when
+     * the original should be served instead: for good when {@link #hasNoVariant},
+     * otherwise only until a queued render finishes.
+     */
+    public ImageVariant get(String sourceHash, int requestedWidth) {
+        int width = snap(requestedWidth);
+        if (width < 0) {
+            return null;
+        }
+        String key = key(sourceHash, width);
+        if (originalOnly.contains(key)) {
+            return null;
+        }
+        ImageVariant stored = find(key);
+        if (stored != null) {
+            return stored;
+        }
+        if (inFlight.containsKey(key)) {
+            // Already being rendered; serve the original meanwhile
+            return null;
+        }
+
+        if (!renderPermits.tryAcquire()) {
+            // Every render slot is busy: leave it to the background workers
+            generate(sourceHash);
+            return null;
+        }
+        try {
+            CompletableFuture<ImageVariant> render = new CompletableFuture<>();
+            if (inFlight.putIfAbsent(key, render) != null) {
+                return null;
+            }
+            run(sourceHash, width, key, render);
+            return render.join();
+        } finally {
+            renderPermits.release();
+        }
+    }
+
+    /**
+     * Whether the original is the final answer for this width: it is wider than
+     * every variant, already small enough, or unreadable
+     */
+    public boolean hasNoVariant(String sourceHash, int requestedWidth) {
+        int width = snap(requestedWidth);
+        return width < 0 || originalOnly.contains(key(sourceHash, width));
+    }
+
+    /**
+     * Render every variant of a newly stored image in the background
+     */
+    public void generate(String sourceHash) {
+        for (int width : widths) {
+            String key = key(sourceHash, width);
+            CompletableFuture<ImageVariant> render = new CompletableFuture<>();
+            if (originalOnly.contains(key) || find(key) != null || inFlight.putIfAbsent(key, render) != null) {
+                continue;
+            }
+            try {
+                renderer.execute(() -> {
+                    renderPermits.acquireUninterruptibly();
+                    try {
+                        run(sourceHash, width, key, render);
+                    } finally {
+                        renderPermits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(key, render);
+                render.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Remove every variant of an image whose source was deleted
+     */
+    public void delete(String sourceHash) {
+        for (int width : widths) {
+            String key = key(sourceHash, width);
+            originalOnly.remove(key);
+            for (String extension : EXTENSIONS) {
+                try {
+                    Files.deleteIfExists(path(key, extension));
+                } catch (IOException e) {
+                    // An orphaned variant only costs disk space
+                }
+            }
+        }
+    }
+
+    /**
+     * Smallest configured width at least {@code requested}, or -1 if it is wider than all of them
+     */
+    int snap(int requested) {
+        for (int width : widths) {
+            if (width >= requested) {
+                return width;
+            }
+        }
+        return -1;
+    }
+
+    /* ---------- helpers ---------- */
+
+    // Callers hold a render permit
+    private void run(String sourceHash, int width, String key, CompletableFuture<ImageVariant> render) {
+        ImageVariant variant = null;
+        try {
+            variant = render(sourceHash, width, key);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not render image variant {}", key, e);
+        } finally {
+            inFlight.remove(key, render);
+            render.complete(variant);
+        }
+    }
+
+    private ImageVariant render(String sourceHash, int width, String key) throws IOException {
+        Resource source = imageStore.load(sourceHash);
+        if (source == null) {
+            return null;
+        }
+
+        Path tmp = Files.createTempFile(root, "variant-", ".tmp");
+        try {
+            String contentType;
+            try (InputStream in = source.getInputStream(); OutputStream out = Files.newOutputStream(tmp)) {
+                contentType = ImageResizer.resize(in, width, jpegQuality, out);
+            }
+            if (contentType == null) {
+                originalOnly.add(key);
+                return null;
+            }
+            Path target = path(key, "image/png".equals(contentType) ? ".png" : ".jpg");
+            Files.createDirectories(target.getParent());
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return new ImageVariant(new FileSystemResource(target), contentType, key);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private ImageVariant find(String key) {
+        for (String extension : EXTENSIONS) {
+            Path path = path(key, extension);
+            if (Files.isRegularFile(path)) {
+                return new ImageVariant(new FileSystemResource(path),
+                        ".png".equals(extension) ? "image/png" : "image/jpeg", key);
+            }
+        }
+        return null;
+    }
+
+    private static String key(String sourceHash, int width) {
+        if (sourceHash == null || !sourceHash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Invalid image key: " + sourceHash);
+        }
+        return sourceHash + "-w" + width;
+    }
+
+    private Path path(String key, String extension) {
+        return root.resolve(key.substring(0, 2)).resolve(key + extension);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.ecom.storage;
+
+import com.example.ecom.model.Product;
+import com.example.ecom.repository.ProductImageRepository;
+import com.example.ecom.repository.ProductRepo;
+import com.example.ecom.service.ProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Moves image bytes left in the old {@code product.image_data} column into the
+ * {@link ImageStore}, one row at a time, and clears the column afterwards.
+ * Does nothing on databases that never had the column.
+ */
+@Component
+public class LegacyProductImageMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyProductImageMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepo productRepo;
+    private final ProductImageRepository imageRepo;
+    private final ProductService productService;
+
+    public LegacyProductImageMigration(JdbcTemplate jdbcTemplate,
+                                       ProductRepo productRepo,
+                                       ProductImageRepository imageRepo,
+                                       ProductService productService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productRepo = productRepo;
+        this.imageRepo = imageRepo;
+        this.productService = productService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Integer> ids;
+        try {
+            ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM product WHERE image_data IS NOT NULL", Integer.class);
+        } catch (DataAccessException e) {
+            return; // no legacy column
+        }
+
+        for (Integer id : ids) {
+            try {
+                migrate(id);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not migrate image for product {}", id, e);
+            }
+        }
+        if (!ids.isEmpty()) {
+            log.info("Migrated {} product images to the image store", ids.size());
+        }
+    }
+
+    private void migrate(int id) throws IOException {
+        Product product = productRepo.findById(id).orElse(null);
+        if (product != null && !imageRepo.existsById(id)) {
+            // Fetch a single blob so only one image is ever in flight
+            jdbcTemplate.query("SELECT image_data FROM product WHERE id = ?", rs -> {
+                try (InputStream in = rs.getBinaryStream(1)) {
+                    productService.saveImage(id, product.getImageName(), product.getImageType(), in);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, id);
+        }
+        jdbcTemplate.update("UPDATE product SET image_data = NULL WHERE id = ?", id);
+    }
+}
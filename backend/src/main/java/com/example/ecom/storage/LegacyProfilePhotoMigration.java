@@ -0,0 +1,70 @@
+package com.example.ecom.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Moves photo bytes left in the old {@code app_users.profile_photo} column into
+ * the {@link ImageStore}, one row at a time, and clears the column afterwards.
+ * Does nothing on databases that never had the column.
+ */
+@Component
+public class LegacyProfilePhotoMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyProfilePhotoMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageStore imageStore;
+
+    public LegacyProfilePhotoMigration(JdbcTemplate jdbcTemplate, ImageStore imageStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.imageStore = imageStore;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Long> ids;
+        try {
+            ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM app_users WHERE profile_photo IS NOT NULL", Long.class);
+        } catch (DataAccessException e) {
+            return; // no legacy column
+        }
+
+        for (Long id : ids) {
+            try {
+                migrate(id);
+            } catch (RuntimeException e) {
+                log.warn("Could not migrate profile photo for user {}", id, e);
+            }
+        }
+        if (!ids.isEmpty()) {
+            log.info("Migrated {} profile photos to the image store", ids.size());
+        }
+    }
+
+    private void migrate(long id) {
+        // Fetch a single blob so only one photo is ever in flight
+        jdbcTemplate.query("SELECT profile_photo FROM app_users WHERE id = ?", rs -> {
+            try (InputStream in = rs.getBinaryStream(1)) {
+                StoredImage stored = imageStore.store(in);
+                // Legacy photos were always served as JPEG
+                jdbcTemplate.update("UPDATE app_users SET photo_hash = COALESCE(photo_hash, ?), "
+                                + "photo_type = COALESCE(photo_type, ?), profile_photo = NULL WHERE id = ?",
+                        stored.getKey(), MediaType.IMAGE_JPEG_VALUE, id);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, id);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.ecom.storage;
+
+public class StoredImage {
+
+    private final String key;
+    private final long size;
+
+    public StoredImage(String key, long size) {
+        this.key = key;
+        this.size = size;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getSize() {
+        return size;
+    }
+}
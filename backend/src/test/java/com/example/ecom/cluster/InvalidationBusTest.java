@@ -0,0 +1,39 @@
+package com.example.ecom.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvalidationBusTest {
+
+    @Test
+    void deliversChangesToEveryOtherInstance() {
+        LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport();
+        InvalidationBus a = new InvalidationBus(transport, "a");
+        InvalidationBus b = new InvalidationBus(transport, "b");
+        InvalidationBus c = new InvalidationBus(transport, "");
+        List<String> seenByA = new ArrayList<>();
+        List<String> seenByB = new ArrayList<>();
+        List<String> seenByC = new ArrayList<>();
+        a.subscribe(InvalidationBus.PRODUCT, seenByA::add);
+        b.subscribe(InvalidationBus.PRODUCT, seenByB::add);
+        c.subscribe(InvalidationBus.PRODUCT, seenByC::add);
+        b.subscribe(InvalidationBus.USER, key -> {
+            throw new IllegalStateException("listener failure must not stop delivery");
+        });
+        b.subscribe(InvalidationBus.USER, seenByB::add);
+
+        a.publish(InvalidationBus.PRODUCT, 42);
+        a.publish(InvalidationBus.USER, "alice");
+        b.publish(InvalidationBus.PRODUCT, 7);
+
+        // The publisher has invalidated its own caches already
+        assertThat(seenByA).containsExactly("7");
+        assertThat(seenByB).containsExactly("42", "alice");
+        assertThat(seenByC).containsExactly("42", "7");
+        assertThat(c.getReceived()).isEqualTo(3);
+    }
+}
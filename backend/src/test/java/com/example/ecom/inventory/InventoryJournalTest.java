@@ -0,0 +1,70 @@
+package com.example.ecom.inventory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InventoryJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysTheNetDeltaPerProductOfEachSegment() throws Exception {
+        try (InventoryJournal journal = new InventoryJournal(dir)) {
+            journal.open(1);
+            assertThat(journal.isEmpty()).isTrue();
+
+            Map<Integer, Integer> order = new TreeMap<>();
+            order.put(7, 3);
+            order.put(9, 1);
+            journal.append(order, -1);
+            journal.append(7, 2);
+            assertThat(journal.isEmpty()).isFalse();
+
+            assertThat(journal.rotate()).isEqualTo(1);
+            assertThat(journal.isEmpty()).isTrue();
+            journal.append(9, 5);
+
+            Map<Integer, Long> first = new HashMap<>();
+            journal.replay(1, first);
+            assertThat(first).containsEntry(7, -1L).containsEntry(9, -1L).hasSize(2);
+
+            assertThat(journal.segments()).containsExactly(1L, 2L);
+        }
+
+        // Reopened after a restart, the unrotated segment still holds its record
+        try (InventoryJournal journal = new InventoryJournal(dir)) {
+            Map<Integer, Long> second = new HashMap<>();
+            journal.replay(2, second);
+            assertThat(second).containsEntry(9, 5L).hasSize(1);
+
+            journal.deleteThrough(1);
+            assertThat(journal.segments()).containsExactly(2L);
+        }
+    }
+
+    @Test
+    void ignoresATornFinalRecord() throws Exception {
+        try (InventoryJournal journal = new InventoryJournal(dir)) {
+            journal.open(1);
+            journal.append(4, -2);
+        }
+        // A crash in the middle of a write leaves part of a record behind
+        Files.write(dir.resolve("inventory-1.journal"), Arrays.copyOf(new byte[]{0, 0, 0, 4}, 5),
+                StandardOpenOption.APPEND);
+
+        Map<Integer, Long> deltas = new HashMap<>();
+        new InventoryJournal(dir).replay(1, deltas);
+        assertThat(deltas).containsEntry(4, -2L).hasSize(1);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.ecom.inventory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournaledInventoryServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    // Shut down cleanly after each test; instances that "crash" are left out
+    private final List<JournaledInventoryService> running = new ArrayList<>();
+
+    @BeforeEach
+    void createTables() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(database));
+        jdbcTemplate.execute("CREATE TABLE product (id INT PRIMARY KEY, stock_quantity INT)");
+        jdbcTemplate.execute("CREATE TABLE inventory_checkpoint (id INT PRIMARY KEY, last_segment BIGINT)");
+        jdbcTemplate.update("INSERT INTO product (id, stock_quantity) VALUES (1, 10), (2, 4)");
+    }
+
+    @AfterEach
+    void shutdown() throws Exception {
+        for (JournaledInventoryService inventory : running) {
+            inventory.shutdown();
+        }
+        database.shutdown();
+    }
+
+    @Test
+    void reservesReleasesAndAdjustsAgainstTheCounters() throws Exception {
+        JournaledInventoryService inventory = start();
+
+        assertThat(inventory.tryReserve(lines(1, 3, 2, 4))).isNull();
+        // Short on product 2: nothing of the order is taken
+        assertThat(inventory.tryReserve(lines(1, 1, 2, 1))).isEqualTo(2);
+        assertThat(inventory.available(1)).isEqualTo(7);
+
+        inventory.release(lines(1, 3));
+        inventory.adjustStock(1, 5);
+        inventory.adjustStock(2, -9);
+        assertThat(inventory.available(1)).isEqualTo(15);
+        assertThat(inventory.available(2)).isZero();
+
+        long version = inventory.stockVersion();
+        inventory.flush();
+        assertThat(stock(1)).isEqualTo(15);
+        assertThat(stock(2)).isZero();
+        assertThat(inventory.stockVersion()).isGreaterThan(version);
+        assertThat(inventory.currentStock(Collections.singleton(1))).containsEntry(1, 15);
+    }
+
+    @Test
+    void replaysUnflushedChangesAfterACrash() throws Exception {
+        JournaledInventoryService crashed = startWithoutShutdown();
+        crashed.tryReserve(lines(1, 3));
+        crashed.flush();
+        crashed.tryReserve(lines(1, 2));
+        crashed.release(lines(2, 1));
+        assertThat(stock(1)).isEqualTo(7);
+
+        JournaledInventoryService restarted = start();
+        assertThat(stock(1)).isEqualTo(5);
+        assertThat(stock(2)).isEqualTo(5);
+        assertThat(restarted.available(1)).isEqualTo(5);
+        assertThat(journalSegments()).containsExactly(checkpoint() + 1);
+    }
+
+    @Test
+    void appliesEachSegmentOnceAroundTheCheckpointCommit() throws Exception {
+        // Segment 3 was applied and checkpointed, but the crash came before it was deleted;
+        // segment 4 was journaled but its flush never committed
+        try (InventoryJournal journal = new InventoryJournal(dir)) {
+            journal.open(3);
+            journal.append(1, -4);
+            journal.rotate();
+            journal.append(1, -1);
+            journal.append(2, 2);
+        }
+        jdbcTemplate.update("UPDATE product SET stock_quantity = 6 WHERE id = 1");
+        jdbcTemplate.update("INSERT INTO inventory_checkpoint (id, last_segment) VALUES (1, 3)");
+
+        start();
+        assertThat(stock(1)).isEqualTo(5);
+        assertThat(stock(2)).isEqualTo(6);
+        assertThat(checkpoint()).isEqualTo(4);
+        assertThat(journalSegments()).containsExactly(5L);
+
+        // Starting again applies nothing twice
+        running.remove(0).shutdown();
+        start();
+        assertThat(stock(1)).isEqualTo(5);
+        assertThat(stock(2)).isEqualTo(6);
+    }
+
+    @Test
+    void aFailedFlushKeepsItsSegmentAndIsRetried() throws Exception {
+        JournaledInventoryService inventory = start();
+        inventory.tryReserve(lines(1, 3));
+
+        jdbcTemplate.execute("ALTER TABLE inventory_checkpoint RENAME TO inventory_checkpoint_gone");
+        assertThatThrownBy(inventory::flush).isInstanceOf(DataAccessException.class);
+        assertThat(stock(1)).isEqualTo(10);
+        assertThat(journalSegments()).contains(1L);
+
+        inventory.tryReserve(lines(1, 1));
+        jdbcTemplate.execute("ALTER TABLE inventory_checkpoint_gone RENAME TO inventory_checkpoint");
+        inventory.flush();
+        assertThat(stock(1)).isEqualTo(6);
+        assertThat(journalSegments()).containsExactly(checkpoint() + 1);
+
+        // Nothing left to replay
+        running.remove(0).shutdown();
+        start();
+        assertThat(stock(1)).isEqualTo(6);
+    }
+
+    private JournaledInventoryService start() throws Exception {
+        JournaledInventoryService inventory = startWithoutShutdown();
+        running.add(inventory);
+        return inventory;
+    }
+
+    private JournaledInventoryService startWithoutShutdown() throws Exception {
+        // Flushes only when a test asks for one
+        JournaledInventoryService inventory = new JournaledInventoryService(
+                jdbcTemplate, transactionTemplate, dir.toString(), 3_600_000, 2);
+        inventory.afterPropertiesSet();
+        return inventory;
+    }
+
+    private int stock(int productId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM product WHERE id = ?", Integer.class, productId);
+    }
+
+    private long checkpoint() {
+        return jdbcTemplate.queryForObject("SELECT last_segment FROM inventory_checkpoint WHERE id = 1", Long.class);
+    }
+
+    private List<Long> journalSegments() throws Exception {
+        return new InventoryJournal(dir).segments();
+    }
+
+    private static Map<Integer, Integer> lines(int... productQuantityPairs) {
+        Map<Integer, Integer> lines = new TreeMap<>();
+        for (int i = 0; i < productQuantityPairs.length; i += 2) {
+            lines.put(productQuantityPairs[i], productQuantityPairs[i + 1]);
+        }
+        return Collections.unmodifiableMap(lines);
+    }
+}
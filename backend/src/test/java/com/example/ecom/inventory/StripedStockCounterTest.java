@@ -0,0 +1,64 @@
+package com.example.ecom.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedStockCounterTest {
+
+    @Test
+    void takesAcrossStripesUntilTheProductIsShort() {
+        StripedStockCounter counter = new StripedStockCounter(10, 4);
+
+        assertThat(counter.tryTake(7)).isTrue();
+        assertThat(counter.tryTake(4)).isFalse();
+        assertThat(counter.available()).isEqualTo(3);
+
+        counter.give(2);
+        assertThat(counter.tryTake(5)).isTrue();
+        assertThat(counter.available()).isZero();
+
+        assertThat(counter.adjust(8)).isEqualTo(8);
+        assertThat(counter.available()).isEqualTo(8);
+
+        assertThat(counter.adjust(-10)).isEqualTo(-8);
+        assertThat(counter.available()).isZero();
+    }
+
+    @Test
+    void neverOversellsUnderConcurrentReservations() throws InterruptedException {
+        StripedStockCounter counter = new StripedStockCounter(1000, 8);
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> buyers = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            Thread buyer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int n = 0; n < 500; n++) {
+                    if (counter.tryTake(1)) {
+                        sold.incrementAndGet();
+                    }
+                }
+            });
+            buyers.add(buyer);
+            buyer.start();
+        }
+        start.countDown();
+        for (Thread buyer : buyers) {
+            buyer.join();
+        }
+
+        assertThat(sold.get()).isEqualTo(1000);
+        assertThat(counter.available()).isZero();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.ecom.search;
+
+import com.example.ecom.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.rebuild(() -> Arrays.asList(
+                product(1, "iPhone 15 Pro", "Apple", "Mobile", "Flagship smartphone"),
+                product(2, "Galaxy S24", "Samsung", "Mobile", "Android phone with a great camera"),
+                product(3, "MacBook Air", "Apple", "Laptop", "Thin and light laptop"),
+                product(4, "Phone case", "Generic", "Accessories", "Fits most phones")
+        ));
+    }
+
+    @Test
+    void ranksExactNameMatchesFirst() {
+        List<Integer> ids = ids(index.search("phone", 10));
+        assertThat(ids).containsExactlyInAnyOrder(4, 2, 1);
+        assertThat(ids.get(0)).isEqualTo(4);
+    }
+
+    @Test
+    void matchesPrefixesAndInfixes() {
+        assertThat(ids(index.search("macb", 10))).containsExactly(3);
+        assertThat(ids(index.search("laxy", 10))).containsExactly(2);
+    }
+
+    @Test
+    void requiresEveryQueryToken() {
+        assertThat(ids(index.search("apple laptop", 10))).containsExactly(3);
+        assertThat(ids(index.search("samsung laptop", 10))).isEmpty();
+    }
+
+    @Test
+    void updatesAndRemovesIncrementally() {
+        index.put(product(3, "MacBook Pro", "Apple", "Laptop", "Pro laptop"));
+        assertThat(ids(index.search("air", 10))).isEmpty();
+        assertThat(ids(index.search("pro", 10))).containsExactly(3, 1);
+
+        index.remove(1);
+        assertThat(ids(index.search("iphone", 10))).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void keepsChangesMadeWhileARebuildLoads() {
+        index.rebuild(() -> {
+            // Committed after the rows below were read
+            index.remove(3);
+            index.put(product(2, "Galaxy S25", "Samsung", "Mobile", "Android phone"));
+            return Arrays.asList(
+                    product(2, "Galaxy S24", "Samsung", "Mobile", "Android phone with a great camera"),
+                    product(3, "MacBook Air", "Apple", "Laptop", "Thin and light laptop"));
+        });
+
+        assertThat(ids(index.search("macbook", 10))).isEmpty();
+        assertThat(ids(index.search("s25", 10))).containsExactly(2);
+        assertThat(ids(index.search("s24", 10))).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void returnsOnlyTheBestHitsUpToTheLimit() {
+        List<Integer> all = ids(index.search("phone", 10));
+
+        assertThat(ids(index.search("phone", 2))).containsExactlyElementsOf(all.subList(0, 2));
+    }
+
+    private static List<Integer> ids(List<Product> products) {
+        return products.stream().map(Product::getId).collect(Collectors.toList());
+    }
+
+    private static Product product(int id, String name, String brand, String category, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setBrand(brand);
+        product.setCategory(category);
+        product.setDescription(description);
+        return product;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ecom.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionTrieTest {
+
+    @Test
+    void returnsMostPopularSuggestionsForPrefix() {
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(2);
+        builder.key("iphone 15", builder.suggestion("iPhone 15", 10));
+        builder.key("iphone 15 pro", builder.suggestion("iPhone 15 Pro", 50));
+        builder.key("ipad air", builder.suggestion("iPad Air", 30));
+        builder.key("galaxy s24", builder.suggestion("Galaxy S24", 99));
+        SuggestionTrie trie = builder.build();
+
+        assertThat(trie.suggest("i", 10)).containsExactly("iPhone 15 Pro", "iPad Air");
+        assertThat(trie.suggest("IPH", 10)).containsExactly("iPhone 15 Pro", "iPhone 15");
+        assertThat(trie.suggest("iphone 15  p", 10)).containsExactly("iPhone 15 Pro");
+        assertThat(trie.suggest("iphone 15", 1)).containsExactly("iPhone 15 Pro");
+        assertThat(trie.suggest("ipx", 10)).isEmpty();
+        assertThat(trie.suggest("", 10)).isEmpty();
+    }
+
+    @Test
+    void deduplicatesSuggestionsReachableThroughSeveralKeys() {
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(5);
+        int id = builder.suggestion("Pro Pro Max", 1);
+        builder.key("pro pro max", id).key("pro max", id).key("max", id);
+        SuggestionTrie trie = builder.build();
+
+        assertThat(trie.suggest("pro", 5)).containsExactly("Pro Pro Max");
+        assertThat(trie.suggest("m", 5)).containsExactly("Pro Pro Max");
+    }
+
+    @Test
+    void mergesSameNamedSuggestions() {
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(5);
+        builder.key("usb cable", builder.suggestion("USB Cable", 3));
+        builder.key("usb  cable", builder.suggestion("usb  cable", 4));
+        builder.key("usb hub", builder.suggestion("USB Hub", 5));
+        SuggestionTrie trie = builder.build();
+
+        assertThat(trie.size()).isEqualTo(2);
+        assertThat(trie.suggest("usb", 5)).containsExactly("USB Cable", "USB Hub");
+    }
+
+    @Test
+    void normalizesCaseAndWhitespace() {
+        assertThat(SuggestionTrie.normalize("  iPhone\t15 \n Pro ")).isEqualTo("iphone 15 pro");
+        assertThat(SuggestionTrie.normalize("   ")).isEmpty();
+        assertThat(SuggestionTrie.normalize(null)).isEmpty();
+    }
+}
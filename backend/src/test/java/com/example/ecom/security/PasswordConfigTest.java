@@ -0,0 +1,35 @@
+package com.example.ecom.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordConfigTest {
+
+    @Test
+    void upgradesLegacyAndCheaperHashesOnly() {
+        PasswordEncoder encoder = new PasswordConfig().passwordEncoder(PasswordConfig.BCRYPT, 5, 0, 19456, 2, 1);
+
+        String legacy = new BCryptPasswordEncoder(5).encode("secret");
+        assertThat(encoder.matches("secret", legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+
+        String cheaper = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret");
+        assertThat(encoder.matches("secret", cheaper)).isTrue();
+        assertThat(encoder.upgradeEncoding(cheaper)).isTrue();
+
+        String current = encoder.encode("secret");
+        assertThat(current).startsWith("{bcrypt}$2a$05$");
+        assertThat(encoder.matches("secret", current)).isTrue();
+        assertThat(encoder.matches("wrong", current)).isFalse();
+        assertThat(encoder.upgradeEncoding(current)).isFalse();
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        assertThat(PasswordConfig.calibrateBCrypt(1)).isEqualTo(10);
+        assertThat(PasswordConfig.calibrateBCrypt(Long.MAX_VALUE)).isEqualTo(14);
+    }
+}
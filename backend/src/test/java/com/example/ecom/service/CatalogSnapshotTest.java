@@ -0,0 +1,20 @@
+package com.example.ecom.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSnapshotTest {
+
+    @Test
+    void servesGzipOnlyWhenTheClientAcceptsIt() {
+        assertThat(CatalogSnapshot.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(CatalogSnapshot.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(CatalogSnapshot.acceptsGzip("*")).isTrue();
+
+        assertThat(CatalogSnapshot.acceptsGzip(null)).isFalse();
+        assertThat(CatalogSnapshot.acceptsGzip("identity")).isFalse();
+        assertThat(CatalogSnapshot.acceptsGzip("br, gzip;q=0")).isFalse();
+        assertThat(CatalogSnapshot.acceptsGzip("gzip;q=0.0")).isFalse();
+    }
+}
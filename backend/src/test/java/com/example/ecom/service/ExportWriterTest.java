@@ -0,0 +1,29 @@
+package com.example.ecom.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportWriterTest {
+
+    @Test
+    void writesCsvWithHeaderAndQuotedFields() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportWriter<Object[]> writer = new ExportWriter<>(ExportFormat.CSV, out, null,
+                new String[]{"id", "name", "total", "createdAt"}, row -> row);
+
+        writer.write(new Object[]{1L, "Smith, \"Jo\"", new BigDecimal("1E+2"), new Date(0)});
+        writer.write(new Object[]{2L, "=HYPERLINK(\"x\")", null, null});
+        writer.finish();
+
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(
+                "id,name,total,createdAt\r\n"
+                        + "1,\"Smith, \"\"Jo\"\"\",100,1970-01-01T00:00:00Z\r\n"
+                        + "2,\"'=HYPERLINK(\"\"x\"\")\",,\r\n");
+    }
+}
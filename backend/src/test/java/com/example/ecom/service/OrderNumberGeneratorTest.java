@@ -0,0 +1,90 @@
+package com.example.ecom.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderNumberGeneratorTest {
+
+    @Test
+    void numbersAreFixedWidthAndSortInIssueOrder() {
+        OrderNumberGenerator generator = new OrderNumberGenerator(7);
+
+        String previous = generator.nextOrderNumber();
+        assertThat(previous).matches("ORD-[0-9A-HJKMNP-TV-Z]{13}");
+        for (int i = 0; i < 20000; i++) {
+            String next = generator.nextOrderNumber();
+            assertThat(next).hasSize(previous.length()).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void encodesTheNodeIdAndKeepsNumericOrder() {
+        long id = new OrderNumberGenerator(1023).nextId();
+
+        assertThat((id >>> 12) & 1023).isEqualTo(1023);
+        assertThat(OrderNumberGenerator.encode(0)).isEqualTo("0000000000000");
+        assertThat(OrderNumberGenerator.encode(31)).isEqualTo("000000000000Z");
+        assertThat(OrderNumberGenerator.encode(id)).isGreaterThan(OrderNumberGenerator.encode(id - 1));
+    }
+
+    @Test
+    void concurrentCallersNeverGetTheSameNumber() throws InterruptedException {
+        OrderNumberGenerator generator = new OrderNumberGenerator(0);
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int n = 0; n < 10000; n++) {
+                    issued.add(generator.nextOrderNumber());
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(issued).hasSize(80000);
+    }
+
+    @Test
+    void rejectsNodeIdsOutsideTenBits() {
+        assertThatThrownBy(() -> new OrderNumberGenerator(1024)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new OrderNumberGenerator(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void picksANodeIdWhenNoneIsConfigured() {
+        long id = new OrderNumberGenerator(" ").nextId();
+
+        assertThat((id >>> 12) & 1023).isBetween(0L, 1023L);
+        assertThat((new OrderNumberGenerator("12").nextId() >>> 12) & 1023).isEqualTo(12);
+    }
+
+    @Test
+    void recognisesAClashOnTheOrderNumberOnly() {
+        assertThat(OrderNumberGenerator.isDuplicate(new DataIntegrityViolationException(
+                "Unique index or primary key violation: \"PUBLIC.UK_ORDERS_ORDER_NUMBER_INDEX_8\""))).isTrue();
+        assertThat(OrderNumberGenerator.isDuplicate(new DataIntegrityViolationException(
+                "Duplicate entry for key 'uk_orders_user_idempotency_key'"))).isFalse();
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.ecom.service;
+
+import com.example.ecom.dto.OrderItemRequest;
+import com.example.ecom.dto.OrderRequest;
+import com.example.ecom.inventory.InventoryService;
+import com.example.ecom.model.Order;
+import com.example.ecom.model.Product;
+import com.example.ecom.repository.OrderRepository;
+import com.example.ecom.repository.ProductRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceIdempotencyTest {
+
+    private static final Long USER = 5L;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductRepo productRepo;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private OrderNumberGenerator orderNumberGenerator;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private OrderReplayCache replayCache = new OrderReplayCache(100, 3600);
+
+    @Spy
+    private CheckoutPermits checkoutPermits = new CheckoutPermits(4);
+
+    @InjectMocks
+    private OrderService orderService;
+
+    @BeforeEach
+    void catalog() {
+        Product product = new Product();
+        product.setId(1);
+        product.setName("Lamp");
+        product.setPrice(new BigDecimal("20.00"));
+        product.setProductAvailable(true);
+        lenient().when(productRepo.findAllById(any())).thenReturn(Collections.singletonList(product));
+        lenient().when(inventoryService.tryReserve(anyMap())).thenReturn(null);
+        lenient().when(orderNumberGenerator.nextOrderNumber()).thenReturn("ORD-TEST");
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(call -> call.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void answersARetryFromTheReplayCache() {
+        when(orderRepository.save(any())).thenAnswer(call -> saved(call.getArgument(0), 41L));
+
+        Order first = orderService.placeOrder(USER, "key-1", request());
+        Order retry = orderService.placeOrder(USER, "key-1", request());
+
+        assertThat(retry).isSameAs(first);
+        assertThat(retry.getId()).isEqualTo(41L);
+        verify(inventoryService, times(1)).tryReserve(anyMap());
+        verify(orderRepository, times(1)).save(any());
+        verify(orderRepository, times(1)).findByUserIdAndIdempotencyKey(USER, "key-1");
+    }
+
+    @Test
+    void answersAnUncachedRetryFromTheOrderRow() {
+        // Evicted from the cache, or placed before a restart: the key is still on the row
+        Order stored = saved(new Order(), 42L);
+        when(orderRepository.findByUserIdAndIdempotencyKey(USER, "key-2")).thenReturn(Optional.of(stored));
+
+        assertThat(orderService.placeOrder(USER, "key-2", request())).isSameAs(stored);
+        assertThat(orderService.placeOrder(USER, "key-2", request())).isSameAs(stored);
+
+        verify(inventoryService, never()).tryReserve(anyMap());
+        verify(orderRepository, never()).save(any());
+        verify(orderRepository, times(1)).findByUserIdAndIdempotencyKey(USER, "key-2");
+    }
+
+    @Test
+    void concurrentRetriesJoinTheFirstAttempt() throws Exception {
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        when(orderRepository.save(any())).thenAnswer(call -> {
+            saving.countDown();
+            commit.await(5, TimeUnit.SECONDS);
+            return saved(call.getArgument(0), 43L);
+        });
+
+        List<AtomicReference<Order>> results = new ArrayList<>();
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            AtomicReference<Order> result = new AtomicReference<>();
+            results.add(result);
+            clients.add(new Thread(() -> result.set(orderService.placeOrder(USER, "key-3", request()))));
+        }
+
+        clients.get(0).start();
+        assertThat(saving.await(5, TimeUnit.SECONDS)).isTrue();
+        for (Thread retry : clients.subList(1, clients.size())) {
+            retry.start();
+        }
+        // Retries park on the first attempt instead of placing their own
+        for (Thread retry : clients.subList(1, clients.size())) {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (retry.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(retry.getState()).isEqualTo(Thread.State.WAITING);
+        }
+        commit.countDown();
+        for (Thread client : clients) {
+            client.join(5000);
+        }
+
+        for (AtomicReference<Order> result : results) {
+            assertThat(result.get()).isNotNull();
+            assertThat(result.get().getId()).isEqualTo(43L);
+        }
+        verify(inventoryService, times(1)).tryReserve(anyMap());
+        verify(orderRepository, times(1)).save(any());
+    }
+
+    @Test
+    void fallsBackToTheRowPlacedConcurrentlyElsewhere() {
+        // Another instance inserted the key between the lookup and this insert
+        Order elsewhere = saved(new Order(), 44L);
+        when(orderRepository.findByUserIdAndIdempotencyKey(USER, "key-4"))
+                .thenReturn(Optional.empty()).thenReturn(Optional.of(elsewhere));
+        when(orderRepository.save(any())).thenThrow(new DataIntegrityViolationException("uk_orders_user_key"));
+
+        assertThat(orderService.placeOrder(USER, "key-4", request())).isSameAs(elsewhere);
+
+        // This attempt's reservation goes back, and the winner is cached for the next retry
+        verify(inventoryService).release(anyMap());
+        assertThat(orderService.placeOrder(USER, "key-4", request())).isSameAs(elsewhere);
+        verify(orderRepository, times(2)).findByUserIdAndIdempotencyKey(USER, "key-4");
+    }
+
+    @Test
+    void reservesInsideTheOrderTransactionWhenTheInventoryJoinsIt() {
+        // The failed insert rolls the guarded UPDATEs back with it; nothing is released afterwards
+        when(inventoryService.joinsCallerTransaction()).thenReturn(true);
+        Order elsewhere = saved(new Order(), 45L);
+        when(orderRepository.findByUserIdAndIdempotencyKey(USER, "key-5"))
+                .thenReturn(Optional.empty()).thenReturn(Optional.of(elsewhere));
+        when(orderRepository.save(any())).thenThrow(new DataIntegrityViolationException("uk_orders_user_key"));
+
+        assertThat(orderService.placeOrder(USER, "key-5", request())).isSameAs(elsewhere);
+
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(inventoryService).tryReserve(anyMap());
+        verify(inventoryService, never()).release(anyMap());
+    }
+
+    @Test
+    void retriesAnOrderNumberIssuedElsewhereWithAFreshOne() {
+        when(orderNumberGenerator.nextOrderNumber()).thenReturn("ORD-CLASH").thenReturn("ORD-FRESH");
+        when(orderRepository.save(any()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry for key 'UK_ORDERS_ORDER_NUMBER'"))
+                .thenAnswer(call -> saved(call.getArgument(0), 46L));
+
+        Order order = orderService.placeOrder(USER, "key-6", request());
+
+        assertThat(order.getOrderNumber()).isEqualTo("ORD-FRESH");
+        verify(orderRepository, times(2)).save(any());
+        // Not mistaken for the same key placed elsewhere
+        verify(orderRepository, times(1)).findByUserIdAndIdempotencyKey(USER, "key-6");
+    }
+
+    private static OrderRequest request() {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProductId(1L);
+        item.setQuantity(2);
+        OrderRequest request = new OrderRequest();
+        request.setItems(Collections.singletonList(item));
+        return request;
+    }
+
+    private static Order saved(Order order, Long id) {
+        order.setId(id);
+        return order;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.ecom.service;
+
+import com.example.ecom.cluster.InvalidationBus;
+import com.example.ecom.dto.OrderUpdateRequest;
+import com.example.ecom.inventory.InventoryService;
+import com.example.ecom.model.Order;
+import com.example.ecom.model.OrderItem;
+import com.example.ecom.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceUpdateTest {
+
+    private static final Long ORDER = 7L;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private OrderLookupCache lookupCache;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    @BeforeEach
+    void transactions() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(call -> call.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(orderRepository.save(any())).thenAnswer(call -> call.getArgument(0));
+    }
+
+    @Test
+    void releasesCancelledStockInsideTheTransactionWhenTheInventoryJoinsIt() {
+        Order order = order("Placed", null);
+        when(orderRepository.findWithItemsById(ORDER)).thenReturn(Optional.of(order));
+        when(orderRepository.updateStatus(ORDER, "Placed", "Cancelled")).thenReturn(1);
+        when(inventoryService.joinsCallerTransaction()).thenReturn(true);
+
+        orderService.updateOrder(ORDER, update("Cancelled", null));
+
+        InOrder inTransaction = inOrder(orderRepository, inventoryService);
+        inTransaction.verify(orderRepository).updateStatus(ORDER, "Placed", "Cancelled");
+        inTransaction.verify(inventoryService).release(Collections.singletonMap(3, 2));
+        inTransaction.verify(orderRepository).save(order);
+        verify(inventoryService).release(anyMap());
+        verify(lookupCache).evict("ORD-7");
+    }
+
+    @Test
+    void changesTheDeliveryDateOfACancelledOrderWhenTheStatusIsEchoedBack() {
+        Order order = order("Cancelled", null);
+        when(orderRepository.findWithItemsById(ORDER)).thenReturn(Optional.of(order));
+        LocalDate delivery = LocalDate.of(2026, 11, 2);
+
+        Order updated = orderService.updateOrder(ORDER, update("Cancelled", delivery));
+
+        assertThat(updated.getDeliveryDate()).isEqualTo(delivery);
+        verify(orderRepository, never()).updateStatus(any(), anyString(), anyString());
+        verify(inventoryService, never()).release(anyMap());
+        verify(invalidationBus).publish(InvalidationBus.ORDER, "ORD-7");
+    }
+
+    @Test
+    void leavesAnUnchangedOrderAlone() {
+        LocalDate delivery = LocalDate.of(2026, 11, 2);
+        Order order = order("Shipped", delivery);
+        when(orderRepository.findWithItemsById(ORDER)).thenReturn(Optional.of(order));
+
+        assertThat(orderService.updateOrder(ORDER, update("Shipped", delivery))).isSameAs(order);
+
+        verify(orderRepository, never()).save(any());
+        verify(invalidationBus, never()).publish(anyString(), any());
+        verify(lookupCache, never()).evict(anyString());
+    }
+
+    private static Order order(String status, LocalDate deliveryDate) {
+        OrderItem item = new OrderItem();
+        item.setProductId(3L);
+        item.setQuantity(2);
+        item.setPrice(new BigDecimal("5.00"));
+        Order order = new Order();
+        order.setId(ORDER);
+        order.setOrderNumber("ORD-7");
+        order.setStatus(status);
+        order.setDeliveryDate(deliveryDate);
+        order.addItem(item);
+        return order;
+    }
+
+    private static OrderUpdateRequest update(String status, LocalDate deliveryDate) {
+        OrderUpdateRequest request = new OrderUpdateRequest();
+        request.setStatus(status);
+        request.setDeliveryDate(deliveryDate);
+        return request;
+    }
+}
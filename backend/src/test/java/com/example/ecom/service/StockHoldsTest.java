@@ -0,0 +1,82 @@
+package com.example.ecom.service;
+
+import com.example.ecom.inventory.InventoryService;
+import com.example.ecom.model.StockHold;
+import com.example.ecom.repository.StockHoldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockHoldsTest {
+
+    @Mock
+    private StockHoldRepository holdRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private StockHolds stockHolds;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(call -> call.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        stockHolds = new StockHolds(holdRepository, inventoryService, transactionTemplate, 300);
+    }
+
+    @Test
+    void givesBackTheUnitsOfExpiredHoldsOnce() {
+        when(holdRepository.findTop100ByCreatedAtBeforeOrderByCreatedAtAsc(any()))
+                .thenReturn(Arrays.asList(hold("ORD-A", "3:2,7:1"), hold("ORD-B", "3:5")));
+        when(holdRepository.deleteByOrderNumbers(Collections.singleton("ORD-A"))).thenReturn(1);
+        // Taken by its writer (or another sweeper) in the meantime
+        when(holdRepository.deleteByOrderNumbers(Collections.singleton("ORD-B"))).thenReturn(0);
+
+        assertThat(stockHolds.sweepExpired()).isEqualTo(1);
+
+        Map<Integer, Integer> expected = new HashMap<>();
+        expected.put(3, 2);
+        expected.put(7, 1);
+        verify(inventoryService).release(expected);
+        verify(inventoryService, never()).release(Collections.singletonMap(3, 5));
+    }
+
+    @Test
+    void findsNothingToSweepBeforeTheExpiry() {
+        when(holdRepository.findTop100ByCreatedAtBeforeOrderByCreatedAtAsc(any()))
+                .thenReturn(Collections.<StockHold>emptyList());
+
+        assertThat(stockHolds.sweepExpired()).isZero();
+        verify(inventoryService, never()).release(anyMap());
+    }
+
+    private static StockHold hold(String orderNumber, String lines) {
+        StockHold hold = new StockHold();
+        hold.setOrderNumber(orderNumber);
+        hold.setLines(lines);
+        hold.setCreatedAt(Instant.now().minusSeconds(600));
+        return hold;
+    }
+}
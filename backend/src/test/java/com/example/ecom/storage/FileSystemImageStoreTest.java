@@ -0,0 +1,39 @@
+package com.example.ecom.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSystemImageStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void storesContentAddressedAndDeduplicates() throws Exception {
+        FileSystemImageStore store = new FileSystemImageStore(dir.toString());
+        byte[] data = "not really a png".getBytes(StandardCharsets.UTF_8);
+
+        StoredImage first = store.store(new ByteArrayInputStream(data));
+        StoredImage second = store.store(new ByteArrayInputStream(data));
+
+        assertThat(first.getKey()).hasSize(64).isEqualTo(second.getKey());
+        assertThat(first.getSize()).isEqualTo(data.length);
+
+        Resource resource = store.load(first.getKey());
+        try (InputStream in = resource.getInputStream()) {
+            assertThat(StreamUtils.copyToByteArray(in)).isEqualTo(data);
+        }
+
+        assertThat(store.delete(first.getKey())).isTrue();
+        assertThat(store.load(first.getKey())).isNull();
+    }
+}
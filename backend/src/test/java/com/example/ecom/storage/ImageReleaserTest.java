@@ -0,0 +1,68 @@
+package com.example.ecom.storage;
+
+import com.example.ecom.repository.ProductImageRepository;
+import com.example.ecom.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ImageReleaserTest {
+
+    @TempDir
+    Path dir;
+
+    private final ProductImageRepository productImages = mock(ProductImageRepository.class);
+    private final UserRepository users = mock(UserRepository.class);
+    private final ImageVariantStore variants = mock(ImageVariantStore.class);
+
+    @AfterEach
+    void endTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void keepsBytesStoredByAnUncommittedTransaction() throws Exception {
+        FileSystemImageStore store = new FileSystemImageStore(dir.toString());
+        ImageReleaser releaser = new ImageReleaser(productImages, users, store, variants);
+
+        // Upload A has stored the bytes but not yet saved the row pointing at them
+        TransactionSynchronizationManager.initSynchronization();
+        StoredImage stored = releaser.store(new ByteArrayInputStream(bytes()));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // B drops its reference to the same bytes; neither repository counts A's row yet
+        releaser.release(stored.getKey());
+        assertThat(store.load(stored.getKey())).isNotNull();
+    }
+
+    @Test
+    void deletesUnreferencedBytesOnceTheStoringTransactionCompletes() throws Exception {
+        FileSystemImageStore store = new FileSystemImageStore(dir.toString());
+        ImageReleaser releaser = new ImageReleaser(productImages, users, store, variants);
+
+        TransactionSynchronizationManager.initSynchronization();
+        StoredImage stored = releaser.store(new ByteArrayInputStream(bytes()));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        releaser.release(stored.getKey());
+        assertThat(store.load(stored.getKey())).isNull();
+    }
+
+    private static byte[] bytes() {
+        return "not really a png".getBytes(StandardCharsets.UTF_8);
+    }
+}
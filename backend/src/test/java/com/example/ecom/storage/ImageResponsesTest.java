@@ -0,0 +1,69 @@
+package com.example.ecom.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ImageResponsesTest {
+
+    private static final byte[] IMAGE = "0123456789".getBytes(StandardCharsets.US_ASCII);
+    private static final String HASH = ContentHash.sha256Hex(IMAGE);
+
+    private MockMvc mvc;
+
+    @RestController
+    static class ImageController {
+        @GetMapping("/image")
+        ResponseEntity<Resource> image(@RequestParam(value = "v", required = false) String version) {
+            return ImageResponses.ok(new ByteArrayResource(IMAGE), "image/png", HASH, null, version);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.standaloneSetup(new ImageController()).build();
+    }
+
+    @Test
+    void servesStrongETagAndAnswersConditionalRequestsWith304() throws Exception {
+        mvc.perform(get("/image"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + HASH + "\""))
+                .andExpect(content().bytes(IMAGE));
+
+        mvc.perform(get("/image").header("If-None-Match", "\"" + HASH + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void servesByteRanges() throws Exception {
+        mvc.perform(get("/image").header("Range", "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void versionedUrlsAreImmutable() throws Exception {
+        mvc.perform(get("/image").param("v", HASH))
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"));
+
+        mvc.perform(get("/image"))
+                .andExpect(header().string("Cache-Control", "no-cache, public"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.ecom.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageVariantStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private ImageVariantStore variants;
+
+    @AfterEach
+    void shutdown() {
+        if (variants != null) {
+            variants.shutdown();
+        }
+    }
+
+    @Test
+    void rendersThumbnailsRoundedUpToAConfiguredWidth() throws Exception {
+        FileSystemImageStore images = new FileSystemImageStore(dir.resolve("images").toString());
+        variants = new ImageVariantStore(images, dir.resolve("variants").toString(), new int[]{320, 160}, 0.8f, 1);
+        String opaque = images.store(new ByteArrayInputStream(png(1200, 800, BufferedImage.TYPE_INT_RGB))).getKey();
+        String transparent = images.store(new ByteArrayInputStream(png(1200, 600, BufferedImage.TYPE_INT_ARGB))).getKey();
+
+        ImageVariant thumb = variants.get(opaque, 200);
+        assertThat(thumb.getContentType()).isEqualTo("image/jpeg");
+        assertThat(thumb.getKey()).isEqualTo(opaque + "-w320");
+        try (InputStream in = thumb.getResource().getInputStream()) {
+            BufferedImage read = ImageIO.read(in);
+            assertThat(read.getWidth()).isEqualTo(320);
+            assertThat(read.getHeight()).isEqualTo(213);
+        }
+        assertThat(variants.get(opaque, 320).getResource().getFile()).isEqualTo(thumb.getResource().getFile());
+
+        assertThat(variants.get(transparent, 100).getContentType()).isEqualTo("image/png");
+
+        // Wider than every variant: serve the original
+        assertThat(variants.get(opaque, 1000)).isNull();
+
+        variants.delete(opaque);
+        assertThat(thumb.getResource().exists()).isFalse();
+    }
+
+    @Test
+    void fallsBackToTheOriginalForSmallOrUnreadableImages() throws Exception {
+        FileSystemImageStore images = new FileSystemImageStore(dir.resolve("images").toString());
+        variants = new ImageVariantStore(images, dir.resolve("variants").toString(), new int[]{160}, 0.8f, 1);
+        String small = images.store(new ByteArrayInputStream(png(100, 100, BufferedImage.TYPE_INT_RGB))).getKey();
+        String text = images.store(new ByteArrayInputStream("not an image".getBytes(StandardCharsets.UTF_8))).getKey();
+
+        assertThat(variants.get(small, 160)).isNull();
+        assertThat(variants.get(text, 160)).isNull();
+    }
+
+    @Test
+    void servesTheOriginalAndQueuesTheRenderWhenEverySlotIsBusy() throws Exception {
+        FileSystemImageStore images = new FileSystemImageStore(dir.resolve("images").toString());
+        variants = new ImageVariantStore(images, dir.resolve("variants").toString(), new int[]{160}, 0.8f, 1);
+        String hash = images.store(new ByteArrayInputStream(png(800, 600, BufferedImage.TYPE_INT_RGB))).getKey();
+
+        Semaphore permits = (Semaphore) ReflectionTestUtils.getField(variants, "renderPermits");
+        permits.acquire();
+        try {
+            assertThat(variants.get(hash, 160)).isNull();
+            assertThat(variants.hasNoVariant(hash, 160)).isFalse();
+        } finally {
+            permits.release();
+        }
+
+        ImageVariant thumb = null;
+        for (int i = 0; i < 200 && thumb == null; i++) {
+            Thread.sleep(25);
+            thumb = variants.get(hash, 160);
+        }
+        assertThat(thumb).isNotNull();
+        assertThat(variants.hasNoVariant(hash, 1000)).isTrue();
+    }
+
+    private static byte[] png(int width, int height, int type) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, type == BufferedImage.TYPE_INT_ARGB ? (x % 256) << 24 | 0x3366cc : x * y);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -11,6 +11,8 @@ const UpdateProduct = () => {
   const navigate = useNavigate();
   const [image, setImage] = useState(null);
   const [imagePreview, setImagePreview] = useState("");
+  // Stock as loaded; the server applies only the admin's change to it
+  const [loadedStock, setLoadedStock] = useState(null);
   const [updateProduct, setUpdateProduct] = useState({
     id: null,
     name: "",
@@ -30,6 +32,7 @@ const UpdateProduct = () => {
           `${BASE_URL}/api/product/${id}`
         );
         setUpdateProduct(res.data);
+        setLoadedStock(res.data.stockQuantity);
         setImagePreview(
           `${BASE_URL}/api/product/${id}/image`
         );
@@ -69,6 +72,9 @@ const UpdateProduct = () => {
           type: "application/json",
         })
       );
+      if (loadedStock !== null && loadedStock !== undefined) {
+        formData.append("loadedStock", loadedStock);
+      }
 
       await axios.put(
         `${BASE_URL}/api/product/${id}`,
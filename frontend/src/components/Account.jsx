@@ -253,11 +253,11 @@ const Account = () => {
       if (photoFile) {
         const formData = new FormData();
         formData.append("file", photoFile);
-        await API.post(`/auth/user/${userId}/upload-photo`, formData, {
+        const photoRes = await API.post(`/auth/user/${userId}/upload-photo`, formData, {
           headers: { "Content-Type": "multipart/form-data" },
         });
         setProfilePhoto(
-          `${import.meta.env.VITE_API_BASE_URL}/api/auth/user/${userId}/photo?t=${Date.now()}`
+          `${import.meta.env.VITE_API_BASE_URL}/api/auth/user/${userId}/photo?v=${photoRes.data.photoVersion}`
         );
         window.dispatchEvent(new Event("userLoggedIn"));
         setPhotoFile(null);
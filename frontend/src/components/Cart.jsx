@@ -48,7 +48,7 @@ const Cart = () => {
 
     const items = cart.map((item) => ({
       ...item,
-      imageUrl: `${BASE_URL}/api/product/${item.id}/image`,
+      imageUrl: `${BASE_URL}/api/product/${item.id}/image?w=160`,
     }));
     setCartItems(items);
   }, [cart]);
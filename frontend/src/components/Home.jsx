@@ -33,7 +33,7 @@ const Home = ({ selectedCategory }) => {
 
     const updatedProducts = data.map((product) => ({
       ...product,
-      imageUrl: `${BASE_URL}/api/product/${product.id}/image`,
+      imageUrl: `${BASE_URL}/api/product/${product.id}/image?w=320`,
     }));
 
     setProducts(updatedProducts);
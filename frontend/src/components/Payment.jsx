@@ -1,4 +1,4 @@
-import React, { useState, useContext, useEffect } from "react";
+import React, { useState, useContext, useEffect, useRef } from "react";
 import { useNavigate, useLocation } from "react-router-dom";
 import { toast } from "react-toastify";
 import AppContext from "../context/Context";
@@ -25,6 +25,11 @@ const Payment = () => {
   const [selectedPaymentId, setSelectedPaymentId] = useState(null);
 
   const [paymentMethod, setPaymentMethod] = useState("card");
+  // One key per checkout: a retried submit can never place the order twice
+  const idempotencyKey = useRef(
+    window.crypto?.randomUUID?.() ||
+      `${Date.now()}-${Math.random().toString(36).slice(2)}`
+  );
   const [cardDetails, setCardDetails] = useState({
     cardNumber: "",
     cardName: "",
@@ -149,6 +154,7 @@ const Payment = () => {
         {
           headers: {
             Authorization: `Bearer ${token}`,
+            "Idempotency-Key": idempotencyKey.current,
           },
         }
       );
@@ -217,7 +223,7 @@ const Payment = () => {
                 <div key={item.id} className="summary-item">
                   <div className="summary-item-left">
                     <img
-                      src={`${BASE_URL}/api/product/${item.id}/image`}
+                      src={`${BASE_URL}/api/product/${item.id}/image?w=160`}
                       alt={item.name}
                       className="summary-item-img"
                     />
@@ -29,7 +29,7 @@ const SearchResults = () => {
           res.data.map(async (product) => {
             try {
               const imgRes = await axios.get(
-                `${BASE_URL}/api/product/${product.id}/image`,
+                `${BASE_URL}/api/product/${product.id}/image?w=320`,
                 { responseType: "blob" }
               );
 
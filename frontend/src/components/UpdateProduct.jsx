@@ -13,6 +13,8 @@ const UpdateProduct = () => {
 
   const [image, setImage] = useState(null);
   const [imagePreview, setImagePreview] = useState("");
+  // Stock as loaded; the server applies only the admin's change to it
+  const [loadedStock, setLoadedStock] = useState(null);
 
   const [updateProduct, setUpdateProduct] = useState({
     id: null,
@@ -35,6 +37,7 @@ const UpdateProduct = () => {
         );
 
         setUpdateProduct(res.data);
+        setLoadedStock(res.data.stockQuantity);
 
         // ✅ show existing image
         setImagePreview(
@@ -82,6 +85,9 @@ const UpdateProduct = () => {
           type: "application/json",
         })
       );
+      if (loadedStock !== null && loadedStock !== undefined) {
+        formData.append("loadedStock", loadedStock);
+      }
 
       await axios.put(
         `${BASE_URL}/api/product/${id}`,